@@ -0,0 +1,32 @@
+package hello.springtx;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+
+/**
+ * jmh 벤치마크에서 사용하는 스프링 컨텍스트
+ * embedded(내장 H2) + bench 프로파일로 SpringtxApplication 을 띄운다.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(new Class<?>[0], properties);
+    }
+
+    // sources : 벤치마크 전용 빈 (프록시 적용을 위해 컨텍스트 시작 시점에 등록한다)
+    // properties : 명령행 인자(--key=value) 로 넘겨서 application*.properties 보다 우선한다
+    //              (SpringApplicationBuilder.properties 는 기본값이라 설정 파일에 같은 키가 있으면 무시된다)
+    public static ConfigurableApplicationContext start(Class<?>[] sources, String... properties) {
+        return new SpringApplicationBuilder(SpringtxApplication.class)
+                .sources(sources)
+                .web(WebApplicationType.NONE)
+                .profiles("embedded", "bench")
+                .run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,76 @@
+package hello.springtx.propagation;
+
+import hello.springtx.BenchmarkContext;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * MemberRepository.find / LogRepository.find 조회 지연시간 측정 (10k / 1M / 10M 건)
+ *
+ * 10M 건은 메모리에 올리기 어려우므로 파일 기반 H2 (build/jmh-db) 를 사용한다.
+ * 실행 : ./gradlew jmh -Pjmh.includes=LookupBenchmark
+ *        ./gradlew jmh -Pjmh.includes=LookupBenchmark -Pjmh.args="-f 1 -wi 2 -i 3 -p rows=10000"
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LookupBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    LogRepository logRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.datasource.url=jdbc:h2:file:./build/jmh-db/lookup-" + rows + ";MODE=MySQL");
+        memberRepository = context.getBean(MemberRepository.class);
+        logRepository = context.getBean(LogRepository.class);
+
+        // 파일 DB 는 실행 사이에 남아 있으므로(스키마는 Flyway 가 한 번만 만든다) 비운 뒤 DB 내부에서 바로 데이터를 채운다
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("truncate table member");
+        jdbcTemplate.execute("truncate table log");
+        jdbcTemplate.update("insert into member (id, user_name) select x, concat('user', x) from system_range(1, ?)", rows);
+        // 조회는 최근 bucket 만 보므로 오늘 날짜로 채운다
+        jdbcTemplate.update("insert into log (id, message, bucket) select x, concat('log', x), ? from system_range(1, ?)",
+                Log.bucketOf(LocalDate.now()), rows);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private int randomKey() {
+        return ThreadLocalRandom.current().nextInt(1, rows + 1);
+    }
+
+    @Benchmark
+    public Optional<Member> member_find() {
+        return memberRepository.find("user" + randomKey());
+    }
+
+    @Benchmark
+    public Optional<Member> member_findReadOnly() {
+        return memberRepository.findReadOnly("user" + randomKey());
+    }
+
+    @Benchmark
+    public Optional<Log> log_find() {
+        return logRepository.find("log" + randomKey());
+    }
+
+    @Benchmark
+    public Optional<Log> log_findReadOnly() {
+        return logRepository.findReadOnly("log" + randomKey());
+    }
+}
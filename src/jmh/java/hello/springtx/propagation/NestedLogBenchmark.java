@@ -0,0 +1,86 @@
+package hello.springtx.propagation;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import hello.springtx.BenchmarkContext;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * joinV2 의 로그 저장 격리 방식 비교 : REQUIRES_NEW (direct) vs NESTED savepoint (nested)
+ *
+ * - direct : 로그마다 외부 트랜잭션을 보류하고 커넥션을 하나 더 사용한다. (join 1건에 커넥션 2개)
+ * - nested : 외부 트랜잭션의 커넥션에 savepoint 를 만든다. (join 1건에 커넥션 1개)
+ *
+ * 커넥션 풀을 스레드 수 + 1 로 작게 잡아서 REQUIRES_NEW 의 커넥션 대기 시간이 지연시간에 드러나게 한다.
+ * (풀 크기가 스레드 수 이하이면 direct 는 모든 커넥션을 외부 트랜잭션이 잡고 내부 커넥션을 기다리는 교착에 빠진다)
+ * 보조 지표 connections 는 커넥션 풀에서 커넥션을 꺼낸 횟수다. (connections / 점수 = op 당 커넥션 수)
+ * 실행 : ./gradlew jmh -Pjmh.includes=NestedLogBenchmark
+ */
+@State(Scope.Benchmark)
+@Threads(NestedLogBenchmark.THREADS)
+public class NestedLogBenchmark {
+
+    static final int THREADS = 4;
+    static final int POOL_SIZE = THREADS + 1;
+
+    // 커넥션을 꺼낸 스레드의 카운터 (Hikari 는 커넥션을 요청한 스레드에서 metrics tracker 를 호출한다)
+    static final ThreadLocal<Connections> CURRENT = new ThreadLocal<>();
+
+    @Param({"direct", "nested"})
+    String writeMode;
+
+    ConfigurableApplicationContext context;
+    MemberService memberService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        context = BenchmarkContext.start(
+                "springtx.log.write-mode=" + writeMode,
+                "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE);
+        memberService = context.getBean(MemberService.class);
+        context.getBean(DataSource.class).unwrap(HikariDataSource.class)
+                .setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+                    @Override
+                    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                        Connections connections = CURRENT.get();
+                        if (connections != null) {
+                            connections.connections++;
+                        }
+                    }
+                });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Connections {
+
+        public long connections;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            connections = 0;
+            CURRENT.set(this);
+        }
+    }
+
+    // 회원 저장 + 로그 저장 성공
+    @Benchmark
+    public void joinV2(Connections connections) {
+        memberService.joinV2("bench_nested");
+    }
+
+    // 로그 저장 실패 : REQUIRES_NEW 는 내부 트랜잭션 롤백, NESTED 는 savepoint 까지만 롤백 후 외부 커밋
+    @Benchmark
+    public void joinV2_logFailure(Connections connections) {
+        memberService.joinV2("로그예외_bench_nested");
+    }
+}
@@ -0,0 +1,92 @@
+package hello.springtx.propagation;
+
+import hello.springtx.BenchmarkContext;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+
+import javax.sql.DataSource;
+
+/**
+ * 트랜잭션 전파 옵션별 호출 비용 측정 (REQUIRED / REQUIRES_NEW / NESTED)
+ *
+ * - joinV1, joinV2 : MemberService 를 통한 실제 회원/로그 저장 (LogRepository.save 는 REQUIRES_NEW)
+ * - inner_* : BasicTxTest 의 PlatformTransactionManager 직접 사용 흐름
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=PropagationBenchmark
+ * 결과의 thrpt 는 처리량, sample 의 p0.99 는 p99 지연시간, gc.alloc.rate.norm 은 op 당 할당량이다.
+ */
+@State(Scope.Benchmark)
+@Threads(4)
+public class PropagationBenchmark {
+
+    ConfigurableApplicationContext context;
+    MemberService memberService;
+    PlatformTransactionManager txManager;
+
+    DefaultTransactionAttribute required;
+    DefaultTransactionAttribute requiresNew;
+    DefaultTransactionAttribute nested;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        memberService = context.getBean(MemberService.class);
+        // BasicTxTest 와 동일하게 DataSourceTransactionManager 로 물리 트랜잭션 비용만 측정
+        txManager = new DataSourceTransactionManager(context.getBean(DataSource.class));
+
+        required = new DefaultTransactionAttribute();
+        requiresNew = new DefaultTransactionAttribute();
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        nested = new DefaultTransactionAttribute();
+        nested.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // 회원 저장 + 로그 저장(REQUIRES_NEW) : 물리 트랜잭션 2개, 커넥션 2개
+    @Benchmark
+    public void joinV1() {
+        memberService.joinV1("bench");
+    }
+
+    // 로그 저장 실패를 복구하는 흐름 : 내부(REQUIRES_NEW) 롤백 + 외부 커밋
+    @Benchmark
+    public void joinV2_logFailure() {
+        memberService.joinV2("로그예외_bench");
+    }
+
+    // REQUIRED : 내부 트랜잭션이 외부 트랜잭션에 참여 (물리 트랜잭션 1개)
+    @Benchmark
+    public void inner_commit() {
+        TransactionStatus outer = txManager.getTransaction(required);
+        TransactionStatus inner = txManager.getTransaction(required);
+        txManager.commit(inner);
+        txManager.commit(outer);
+    }
+
+    // REQUIRES_NEW : 외부 트랜잭션을 보류하고 새로운 커넥션으로 내부 트랜잭션 시작 후 롤백
+    @Benchmark
+    public void inner_rollback_requires_new() {
+        TransactionStatus outer = txManager.getTransaction(required);
+        TransactionStatus inner = txManager.getTransaction(requiresNew);
+        txManager.rollback(inner);
+        txManager.commit(outer);
+    }
+
+    // NESTED : 같은 커넥션에서 savepoint 를 만들고 savepoint 까지만 롤백
+    @Benchmark
+    public void inner_rollback_nested() {
+        TransactionStatus outer = txManager.getTransaction(required);
+        TransactionStatus inner = txManager.getTransaction(nested);
+        txManager.rollback(inner);
+        txManager.commit(outer);
+    }
+}
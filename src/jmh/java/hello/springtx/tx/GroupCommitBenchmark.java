@@ -0,0 +1,59 @@
+package hello.springtx.tx;
+
+import hello.springtx.BenchmarkContext;
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 단건 주문 트랜잭션 : 호출마다 커밋 (direct) vs GroupCommitExecutor 로 모아서 커밋 (grouped)
+ *
+ * 동시 호출이 많을수록 그룹이 커지고 커밋 횟수가 줄어든다.
+ * 내장 H2 는 커밋 시 fsync 가 없으므로 실제 DB(MySQL, innodb_flush_log_at_trx_commit=1) 에서 차이가 더 크다.
+ * 실행 : ./gradlew jmh -Pjmh.includes=GroupCommitBenchmark
+ */
+@State(Scope.Benchmark)
+@Threads(16)
+public class GroupCommitBenchmark {
+
+    @Param({"direct", "grouped"})
+    String mode;
+
+    ConfigurableApplicationContext context;
+    OrderService orderService;
+    GroupCommitExecutor groupCommit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "springtx.tx.group-commit.enabled=true",
+                "springtx.tx.group-commit.window-ms=1");
+        orderService = context.getBean(OrderService.class);
+        groupCommit = context.getBean(GroupCommitExecutor.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void order() throws NotEnoughMoneyException {
+        if (mode.equals("direct")) {
+            orderService.order(newOrder());
+        } else {
+            groupCommit.submit(() -> {
+                orderService.order(newOrder());
+                return null;
+            }).join();
+        }
+    }
+
+    private static Order newOrder() {
+        Order order = new Order();
+        order.setUserName("정상 승인");
+        return order;
+    }
+}
@@ -0,0 +1,68 @@
+package hello.springtx.tx;
+
+import hello.springtx.BenchmarkContext;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.lang.reflect.Method;
+
+/**
+ * 트랜잭션 속성 조회 비용 : 기본 AnnotationTransactionAttributeSource vs PrecomputedTransactionAttributeSource
+ *
+ * - lookup : 속성 조회 + 롤백 규칙 평가 (rollbackFor 체크 예외)
+ * - proxy_call : 클래스 레벨 readOnly + 메서드 레벨 override 가 있는 빈 메서드를 프록시로 호출
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=TransactionAttributeBenchmark
+ */
+@State(Scope.Benchmark)
+public class TransactionAttributeBenchmark {
+
+    @Param({"false", "true"})
+    boolean cached;
+
+    ConfigurableApplicationContext context;
+    TransactionAttributeSource source;
+    LevelService levelService;
+    Method method;
+    MyException exception = new MyException();
+
+    public static class MyException extends Exception {
+    }
+
+    /**
+     * 벤치마크 전용 빈 (TxLevelTest.LevelService + RollbackTest.RollbackService)
+     */
+    @Transactional(readOnly = true)
+    public static class LevelService {
+
+        @Transactional(readOnly = false, rollbackFor = MyException.class)
+        public void write() {
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        context = BenchmarkContext.start(new Class<?>[]{LevelService.class}, "springtx.tx.attribute-cache.enabled=" + cached);
+        source = context.getBean(TransactionInterceptor.class).getTransactionAttributeSource();
+        levelService = context.getBean(LevelService.class);
+        method = LevelService.class.getMethod("write");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean lookup() {
+        return source.getTransactionAttribute(method, LevelService.class).rollbackOn(exception);
+    }
+
+    @Benchmark
+    public void proxy_call() {
+        levelService.write();
+    }
+}
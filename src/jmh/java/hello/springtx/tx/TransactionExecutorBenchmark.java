@@ -0,0 +1,80 @@
+package hello.springtx.tx;
+
+import hello.springtx.BenchmarkContext;
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * @Transactional 프록시 vs TransactionExecutor 호출 비용 비교
+ *
+ * - *_empty : 빈 트랜잭션 (인터셉터, 트랜잭션 속성 조회 비용만 차이)
+ * - *_order : OrderService.order (프록시) vs OrderService.orderV2 (TransactionExecutor)
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=TransactionExecutorBenchmark
+ */
+@State(Scope.Benchmark)
+public class TransactionExecutorBenchmark {
+
+    static final TransactionDefinition EMPTY_TX = TransactionExecutor.required("TransactionExecutorBenchmark.empty");
+
+    ConfigurableApplicationContext context;
+    EmptyTxService emptyTxService;
+    TransactionExecutor txExecutor;
+    OrderService orderService;
+    Runnable emptyBody = () -> {
+    };
+
+    /**
+     * 벤치마크 전용 빈 : @Transactional 이 붙은 빈 메서드 (CGLIB 프록시)
+     */
+    public static class EmptyTxService {
+
+        @Transactional
+        public void empty() {
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(new Class<?>[]{EmptyTxService.class});
+        emptyTxService = context.getBean(EmptyTxService.class);
+        txExecutor = context.getBean(TransactionExecutor.class);
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void proxy_empty() {
+        emptyTxService.empty();
+    }
+
+    @Benchmark
+    public void programmatic_empty() {
+        txExecutor.run(EMPTY_TX, emptyBody);
+    }
+
+    @Benchmark
+    public Order proxy_order() throws NotEnoughMoneyException {
+        Order order = new Order();
+        order.setUserName("정상 승인");
+        orderService.order(order);
+        return order;
+    }
+
+    @Benchmark
+    public Order programmatic_order() throws NotEnoughMoneyException {
+        Order order = new Order();
+        order.setUserName("정상 승인");
+        orderService.orderV2(order);
+        return order;
+    }
+}
@@ -0,0 +1,71 @@
+package hello.springtx.tx;
+
+import hello.springtx.BenchmarkContext;
+import hello.springtx.propagation.MemberService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * joinV1 동시 실행 부하 테스트 : 플랫폼 스레드 풀 vs 가상 스레드 + 커넥션 예산
+ *
+ * - platform : 커넥션 풀 크기만큼의 고정 스레드 풀 (기존 방식)
+ * - virtual  : 작업마다 가상 스레드, 동시 트랜잭션 수는 ConnectionBudget 으로 제한
+ *
+ * op 하나는 동시 요청 tasks 건을 모두 처리하는 시간이다.
+ * 실행 : ./gradlew jmh -Pjmh.includes=VirtualThreadBenchmark
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+public class VirtualThreadBenchmark {
+
+    static final int POOL_SIZE = 10;
+
+    @Param({"platform", "virtual"})
+    String mode;
+
+    @Param({"200"})
+    int tasks;
+
+    ConfigurableApplicationContext context;
+    MemberService memberService;
+    VirtualThreadTransactionExecutor virtualExecutor;
+    ExecutorService platformExecutor;
+    int connectionsPerJoin;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "springtx.virtual-threads.enabled=true",
+                "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE);
+        memberService = context.getBean(MemberService.class);
+        virtualExecutor = context.getBean(VirtualThreadTransactionExecutor.class);
+        connectionsPerJoin = memberService.connectionsPerJoin();
+        // REQUIRES_NEW 로 커넥션을 2개씩 쓰므로 플랫폼 스레드 수도 풀이 감당할 수 있는 만큼만 둔다
+        platformExecutor = Executors.newFixedThreadPool(POOL_SIZE / connectionsPerJoin);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        platformExecutor.shutdown();
+        platformExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        context.close();
+    }
+
+    @Benchmark
+    public void joinV1() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+        for (int i = 0; i < tasks; i++) {
+            if (mode.equals("virtual")) {
+                futures[i] = virtualExecutor.submit(connectionsPerJoin, () -> memberService.joinV1("vt_bench"));
+            } else {
+                futures[i] = CompletableFuture.runAsync(() -> memberService.joinV1("vt_bench"), platformExecutor);
+            }
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+}
@@ -0,0 +1,6 @@
+package hello.springtx.datasource;
+
+public enum DataSourceType {
+    PRIMARY, // 쓰기 (readOnly = false)
+    REPLICA  // 읽기 (readOnly = true)
+}
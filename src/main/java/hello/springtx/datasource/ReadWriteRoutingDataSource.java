@@ -0,0 +1,18 @@
+package hello.springtx.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 현재 트랜잭션이 readOnly 이면 replica, 아니면 primary 커넥션을 사용한다.
+ *
+ * 트랜잭션 매니저는 doBegin 에서 커넥션을 먼저 얻고 나서 readOnly 여부를 동기화 매니저에 등록하므로
+ * 반드시 LazyConnectionDataSourceProxy 로 감싸서 첫 SQL 실행 시점에 커넥션을 고르도록 해야 한다.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? DataSourceType.REPLICA : DataSourceType.PRIMARY;
+    }
+}
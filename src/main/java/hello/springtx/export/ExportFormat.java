@@ -0,0 +1,116 @@
+package hello.springtx.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * export 출력 형식
+ * - CSV : 첫 줄은 컬럼 이름, null 은 빈 값, 쉼표/따옴표/줄바꿈이 있으면 따옴표로 감싼다 (RFC 4180)
+ * - NDJSON : 한 줄에 JSON 객체 하나
+ */
+public enum ExportFormat {
+
+    CSV {
+        @Override
+        void writeHeader(Writer out, String[] columns) throws IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(columns[i]);
+            }
+            out.write('\n');
+        }
+
+        @Override
+        void writeRow(Writer out, String[] columns, Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                Object value = values[i];
+                if (value instanceof Number) {
+                    out.write(value.toString());
+                } else if (value != null) {
+                    writeCsvText(out, value.toString());
+                }
+            }
+            out.write('\n');
+        }
+    },
+
+    NDJSON {
+        @Override
+        void writeHeader(Writer out, String[] columns) {
+        }
+
+        @Override
+        void writeRow(Writer out, String[] columns, Object[] values) throws IOException {
+            out.write('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write('"');
+                out.write(columns[i]);
+                out.write("\":");
+                Object value = values[i];
+                if (value == null) {
+                    out.write("null");
+                } else if (value instanceof Number) {
+                    out.write(value.toString());
+                } else {
+                    writeJsonText(out, value.toString());
+                }
+            }
+            out.write("}\n");
+        }
+    };
+
+    abstract void writeHeader(Writer out, String[] columns) throws IOException;
+
+    abstract void writeRow(Writer out, String[] columns, Object[] values) throws IOException;
+
+    private static void writeCsvText(Writer out, String text) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(text);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private static void writeJsonText(Writer out, String text) throws IOException {
+        out.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,86 @@
+package hello.springtx.export;
+
+import hello.springtx.order.OrderRepository;
+import hello.springtx.propagation.LogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 정산용 orders / log 테이블 export
+ * 한 건씩 읽어서 바로 OutputStream 에 쓰므로 테이블 크기와 관계없이 사용하는 메모리가 일정하다. (StatelessScroll 참고)
+ * OutputStream 은 flush 만 하고 닫지 않는다.
+ */
+@Slf4j
+@Service
+public class TableExporter {
+
+    private static final String[] ORDER_COLUMNS = {"id", "user_name", "pay_status", "attempt_count", "next_attempt_at"};
+    private static final String[] LOG_COLUMNS = {"id", "message", "created_at", "bucket"};
+
+    private final OrderRepository orderRepository;
+    private final LogRepository logRepository;
+    private final int fetchSize;
+
+    public TableExporter(OrderRepository orderRepository, LogRepository logRepository,
+                         @Value("${springtx.export.fetch-size:1000}") int fetchSize) {
+        this.orderRepository = orderRepository;
+        this.logRepository = logRepository;
+        this.fetchSize = fetchSize;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportOrders(OutputStream out, ExportFormat format) throws IOException {
+        Writer writer = writer(out);
+        format.writeHeader(writer, ORDER_COLUMNS);
+        long count;
+        try {
+            count = orderRepository.streamAll(fetchSize, order -> write(format, writer, ORDER_COLUMNS, new Object[]{
+                    order.getId(), order.getUserName(),
+                    order.getPayStatus() == null ? null : order.getPayStatus().getCode(),
+                    order.getAttemptCount(), order.getNextAttemptAt()}));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("orders export 완료 format={} rows={}", format, count);
+        return count;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportLogs(OutputStream out, ExportFormat format) throws IOException {
+        Writer writer = writer(out);
+        format.writeHeader(writer, LOG_COLUMNS);
+        long count;
+        try {
+            count = logRepository.streamAll(fetchSize, logMessage -> write(format, writer, LOG_COLUMNS, new Object[]{
+                    logMessage.getId(), logMessage.getMessage(), logMessage.getCreatedAt(), logMessage.getBucket()}));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("log export 완료 format={} rows={}", format, count);
+        return count;
+    }
+
+    private static Writer writer(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private static void write(ExportFormat format, Writer writer, String[] columns, Object[] values) {
+        try {
+            format.writeRow(writer, columns, values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package hello.springtx.order;
+
+/**
+ * 같은 idempotency key 로 다른 내용의 주문이 들어왔다. (IdempotentOrderService)
+ * 재시도가 아니라 키를 잘못 재사용한 것이므로 기존 주문을 돌려주지 않는다.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
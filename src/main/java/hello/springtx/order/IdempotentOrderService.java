@@ -0,0 +1,190 @@
+package hello.springtx.order;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * idempotency key 로 주문을 한 번만 처리한다. 클라이언트가 타임아웃 후 같은 키로 다시 보내면 기존 결과를 돌려준다.
+ *
+ * - 조회 순서 : 결과 캐시(ttl, 노드 로컬) -> 같은 키로 처리 중인 요청 -> uk_orders_idempotency_key 인덱스 조회 -> 주문 처리
+ * - 잔고 부족(NotEnoughMoneyException) 은 대기 상태로 커밋되므로 예외 대신 PENDING 결과를 돌려준다. 재시도해도 같은 결과다.
+ * - 시스템 예외는 아무것도 커밋되지 않으므로 결과를 남기지 않고, 같은 키로 다시 처리할 수 있다.
+ * - 여러 노드가 같은 키를 동시에 처리하면 unique 인덱스 위반으로 한 쪽이 실패하고, 실패한 쪽은 다시 조회해서 먼저 커밋된 결과를 돌려준다.
+ * - 같은 키로 다른 내용(userName) 의 주문이 들어오면 기존 주문을 돌려주지 않고 IdempotencyKeyConflictException 을 던진다.
+ * - 키는 비어 있지 않고 orders.idempotency_key 컬럼 길이(64) 이하여야 한다. 잘못된 키는 캐시와 DB 를 거치기 전에 IllegalArgumentException 으로 거절한다.
+ * - 캐시는 짧게만 보관한다. 대기 주문은 PendingOrderRetryer 가 완료로 바꿀 수 있으므로 ttl 이 지나면 DB 의 현재 상태를 돌려준다.
+ */
+@Slf4j
+@Service
+public class IdempotentOrderService {
+
+    static final int MAX_KEY_LENGTH = 64; // Order.idempotencyKey 컬럼 길이
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final ReceiptCache cache;
+
+    // 같은 노드에서 같은 키로 동시에 들어온 요청은 먼저 온 요청의 결과를 기다린다
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+
+    public IdempotentOrderService(OrderService orderService, OrderRepository orderRepository,
+                                  @Value("${springtx.order.idempotency.cache-size:10000}") int cacheSize,
+                                  @Value("${springtx.order.idempotency.cache-ttl-ms:10000}") long cacheTtlMillis) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.cache = new ReceiptCache(cacheSize, cacheTtlMillis);
+    }
+
+    public OrderReceipt submit(String idempotencyKey, String userName) {
+        checkKey(idempotencyKey);
+        ReceiptCache.Entry cached = cache.get(idempotencyKey);
+        if (cached != null) {
+            cacheHits.increment();
+            checkSameRequest(idempotencyKey, cached.userName(), userName);
+            return cached.receipt().asReplayed();
+        }
+
+        InFlight mine = new InFlight(userName, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(idempotencyKey, mine);
+        if (running != null) {
+            checkSameRequest(idempotencyKey, running.userName(), userName);
+            return await(running.future()).asReplayed();
+        }
+        try {
+            OrderReceipt receipt = lookupOrProcess(idempotencyKey, userName);
+            cache.put(idempotencyKey, userName, receipt);
+            mine.future().complete(receipt);
+            return receipt;
+        } catch (RuntimeException e) {
+            mine.future().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, mine);
+        }
+    }
+
+    // 결과 캐시 적중 수, DB 조회 수 (캐시가 흡수한 재시도 확인용)
+    public long cacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long lookups() {
+        return lookups.sum();
+    }
+
+    private OrderReceipt lookupOrProcess(String idempotencyKey, String userName) {
+        Optional<Order> existing = find(idempotencyKey);
+        if (existing.isPresent()) {
+            return replay(idempotencyKey, existing.get(), userName);
+        }
+
+        Order order = new Order();
+        order.setUserName(userName);
+        order.setIdempotencyKey(idempotencyKey);
+        try {
+            orderService.order(order);
+        } catch (NotEnoughMoneyException e) {
+            log.info("잔고 부족, 대기 상태로 저장 idempotencyKey={}", idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            // 다른 노드(또는 다른 스레드)가 같은 키로 먼저 커밋했다
+            log.info("같은 idempotencyKey 로 이미 저장된 주문이 있습니다. idempotencyKey={}", idempotencyKey);
+            return replay(idempotencyKey, find(idempotencyKey).orElseThrow(() -> e), userName);
+        }
+        return OrderReceipt.of(order, false);
+    }
+
+    // 너무 긴 키는 저장할 때 실패하므로 (처리 중 상태와 캐시를 만들기 전에) 먼저 거절한다
+    private static void checkKey(String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new IllegalArgumentException("idempotencyKey 가 비어 있습니다.");
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("idempotencyKey 는 " + MAX_KEY_LENGTH + "자 이하여야 합니다. length="
+                    + idempotencyKey.length());
+        }
+    }
+
+    private static OrderReceipt replay(String idempotencyKey, Order existing, String userName) {
+        checkSameRequest(idempotencyKey, existing.getUserName(), userName);
+        return OrderReceipt.of(existing, true);
+    }
+
+    private static void checkSameRequest(String idempotencyKey, String storedUserName, String userName) {
+        if (!Objects.equals(storedUserName, userName)) {
+            throw new IdempotencyKeyConflictException(
+                    "이미 다른 주문에 사용된 idempotencyKey 입니다. idempotencyKey=" + idempotencyKey);
+        }
+    }
+
+    private Optional<Order> find(String idempotencyKey) {
+        lookups.increment();
+        return orderRepository.findByIdempotencyKey(idempotencyKey);
+    }
+
+    private static OrderReceipt await(CompletableFuture<OrderReceipt> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // 처리 중인 요청의 내용(userName) 과 결과
+    private record InFlight(String userName, CompletableFuture<OrderReceipt> future) {
+    }
+
+    /**
+     * 최대 maxSize 건, LRU 로 제거하고 ttl 이 지난 항목은 조회할 때 버린다.
+     */
+    private static final class ReceiptCache {
+
+        private final long ttlNanos;
+        private final LinkedHashMap<String, Entry> entries;
+
+        private ReceiptCache(int maxSize, long ttlMillis) {
+            this.ttlNanos = ttlMillis * 1_000_000;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) { // access order : LRU
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        private synchronized Entry get(String key) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt > 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        }
+
+        private synchronized void put(String key, String userName, OrderReceipt receipt) {
+            entries.put(key, new Entry(userName, receipt, System.nanoTime() + ttlNanos));
+        }
+
+        private record Entry(String userName, OrderReceipt receipt, long expiresAt) {
+        }
+    }
+}
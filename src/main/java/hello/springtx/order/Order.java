@@ -4,20 +4,37 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 import static jakarta.persistence.GenerationType.*;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_pay_status", columnList = "pay_status, id"),
+        @Index(name = "uk_orders_idempotency_key", columnList = "idempotency_key", unique = true)})
 @Getter
 @Setter
 public class Order {
 
-    @Id @GeneratedValue
+    public static final int ID_ALLOCATION_SIZE = 100; // 대량 주문(orderAll) 기준
+
+    // pooled-lo : allocationSize 만큼 id 를 미리 할당받아 시퀀스 조회를 줄이고 insert 를 batch 로 묶는다
+    @Id
+    @GeneratedValue(strategy = SEQUENCE, generator = "orders_seq_generator")
+    @SequenceGenerator(name = "orders_seq_generator", sequenceName = "orders_seq", allocationSize = Order.ID_ALLOCATION_SIZE)
     private Long id;
 
     private String userName; // 정상, 예외, 잔고 부족
 
-    private String payStatus; // 상태 (대기, 완료)
+    @Column(length = 1, columnDefinition = "char(1)") // db/migration V1__init_schema 와 같은 타입 (ddl-auto=validate)
+    private PayStatus payStatus; // 상태 (대기, 완료) : PayStatusConverter 로 한 글자 코드 저장
+
+    private int attemptCount; // 결제 재시도 횟수 (PendingOrderRetryer)
+
+    private LocalDateTime nextAttemptAt; // 다음 재시도 가능 시각 (null 이면 바로 재시도)
+
+    @Column(length = 64)
+    private String idempotencyKey; // 클라이언트 재시도 식별 키 (IdempotentOrderService, unique, null 허용)
 }
 
 
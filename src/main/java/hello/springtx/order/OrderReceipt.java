@@ -0,0 +1,19 @@
+package hello.springtx.order;
+
+/**
+ * 멱등 주문 결과 (IdempotentOrderService)
+ *
+ * @param orderId   저장된 주문 id
+ * @param payStatus 결제 상태 (PENDING : 잔고 부족으로 대기 상태로 커밋된 주문)
+ * @param replayed  이미 처리된 요청을 다시 받아서 기존 결과를 돌려준 것인지
+ */
+public record OrderReceipt(Long orderId, PayStatus payStatus, boolean replayed) {
+
+    static OrderReceipt of(Order order, boolean replayed) {
+        return new OrderReceipt(order.getId(), order.getPayStatus(), replayed);
+    }
+
+    OrderReceipt asReplayed() {
+        return replayed ? this : new OrderReceipt(orderId, payStatus, true);
+    }
+}
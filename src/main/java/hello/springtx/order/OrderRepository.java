@@ -1,6 +1,29 @@
 package hello.springtx.order;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+
+    // 재시도 대상 주문을 (pay_status, id) 인덱스로 id 순서대로 limit 건 조회하고 잠근다
+    // 다른 워커가 잠근 행은 건너뛴다 (SELECT ... FOR UPDATE SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select o from Order o where o.payStatus = :payStatus and o.id > :lastId and o.attemptCount < :maxAttempts" +
+            " and (o.nextAttemptAt is null or o.nextAttemptAt <= :now) order by o.id")
+    List<Order> claimRetryBatch(@Param("payStatus") PayStatus payStatus, @Param("lastId") Long lastId,
+                                @Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now, Limit limit);
+
+    // uk_orders_idempotency_key 인덱스로 한 건 조회
+    Optional<Order> findByIdempotencyKey(String idempotencyKey);
 }
@@ -0,0 +1,20 @@
+package hello.springtx.order;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * 대량 주문 저장 : batch_size 마다 flush/clear 해서 영속성 컨텍스트가 계속 커지지 않도록 한다.
+     * 호출하는 쪽의 트랜잭션 안에서 실행되어야 한다.
+     */
+    void saveInBatch(List<Order> orders);
+
+    /**
+     * 전체 주문을 id 순서로 한 건씩 읽는다 (StatelessSession + FORWARD_ONLY 커서, 영속성 컨텍스트에 쌓이지 않는다)
+     * 호출하는 쪽의 트랜잭션에 참여하고, 없으면 readOnly 트랜잭션을 시작한다. (라우팅 시 replica)
+     * @return 읽은 건수
+     */
+    long streamAll(int fetchSize, Consumer<? super Order> action);
+}
@@ -0,0 +1,45 @@
+package hello.springtx.order;
+
+import hello.springtx.tx.StatelessScroll;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+@Slf4j
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private final EntityManager em;
+    private final int batchSize;
+
+    public OrderRepositoryCustomImpl(EntityManager em,
+                                     @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.em = em;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void saveInBatch(List<Order> orders) {
+        for (int i = 0; i < orders.size(); i++) {
+            em.persist(orders.get(i));
+
+            // jdbc batch 크기 단위로 insert 를 내보내고 1차 캐시를 비운다
+            if ((i + 1) % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        log.info("order batch 저장 완료 size={}", orders.size());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long streamAll(int fetchSize, Consumer<? super Order> action) {
+        return StatelessScroll.forEach(em, "select o from Order o order by o.id", Order.class, fetchSize, action);
+    }
+}
@@ -0,0 +1,37 @@
+package hello.springtx.order;
+
+import hello.springtx.outbox.OutboxEventRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 대기 주문 재시도 (springtx.order.retry.enabled=true)
+ * PaymentGateway 빈이 없으면 SimplePaymentGateway 를 사용한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.order.retry.enabled", havingValue = "true")
+public class OrderRetryConfig {
+
+    @Bean
+    public PendingOrderRetryer pendingOrderRetryer(OrderRepository orderRepository,
+                                                   OutboxEventRepository outboxEventRepository,
+                                                   ApplicationEventPublisher eventPublisher,
+                                                   ObjectProvider<PaymentGateway> paymentGateway,
+                                                   PlatformTransactionManager txManager,
+                                                   @Value("${springtx.order.retry.workers:4}") int workers,
+                                                   @Value("${springtx.order.retry.batch-size:100}") int batchSize,
+                                                   @Value("${springtx.order.retry.max-attempts:5}") int maxAttempts,
+                                                   @Value("${springtx.order.retry.base-backoff-ms:1000}") long baseBackoffMillis,
+                                                   @Value("${springtx.order.retry.max-backoff-ms:600000}") long maxBackoffMillis,
+                                                   @Value("${springtx.order.retry.interval-ms:10000}") long intervalMillis) {
+        return new PendingOrderRetryer(orderRepository, outboxEventRepository, eventPublisher,
+                paymentGateway.getIfUnique(SimplePaymentGateway::new), new TransactionTemplate(txManager),
+                workers, batchSize, maxAttempts, baseBackoffMillis, maxBackoffMillis, intervalMillis);
+    }
+}
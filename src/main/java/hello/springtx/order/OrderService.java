@@ -1,35 +1,89 @@
 package hello.springtx.order;
 
+import hello.springtx.outbox.OutboxEventRecorded;
+import hello.springtx.outbox.OutboxEventRepository;
+import hello.springtx.tx.TransactionExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final TransactionDefinition ORDER_TX = TransactionExecutor.required("OrderService.orderV2");
+
     private final OrderRepository orderRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionExecutor txExecutor;
 
     @Transactional
     public void order(Order order) throws NotEnoughMoneyException {
         log.info("order 호출");
+        process(order);
+    }
+
+    // order 와 같은 동작을 프록시 없이 TransactionExecutor 로 실행한다 (체크 예외는 커밋, 런타임 예외는 롤백)
+    public void orderV2(Order order) throws NotEnoughMoneyException {
+        log.info("orderV2 호출");
+        txExecutor.callChecked(ORDER_TX, () -> {
+            process(order);
+            return null;
+        });
+    }
+
+    private void process(Order order) throws NotEnoughMoneyException {
         orderRepository.save(order);
 
         log.info("결제 프로세스 진입");
-        if (order.getUserName().equals("예외")) {
-            log.info("시스템 예외 발생");
-            throw new RuntimeException("시스템 예외");
-        } else if (order.getUserName().equals("잔고 부족")) {
-            log.info("잔고 부족 비즈니스 예외 발생");
-            order.setPayStatus("대기");
-            throw new NotEnoughMoneyException("잔고가 부족합니다."); // 체크 예외
-        } else {
-            // 정상 승인
-            log.info("정상 승인");
-            order.setPayStatus("완료");
+        switch (PaymentOutcome.of(order.getUserName())) {
+            case SYSTEM_ERROR -> {
+                log.info("시스템 예외 발생");
+                throw new RuntimeException("시스템 예외");
+            }
+            case NOT_ENOUGH_MONEY -> {
+                log.info("잔고 부족 비즈니스 예외 발생");
+                order.setPayStatus(PayStatus.PENDING);
+                recordPaymentEvent(order); // 체크 예외는 커밋되므로 대기 상태 이벤트도 함께 커밋된다
+                throw new NotEnoughMoneyException("잔고가 부족합니다."); // 체크 예외
+            }
+            case APPROVED -> {
+                log.info("정상 승인");
+                order.setPayStatus(PayStatus.COMPLETED);
+                recordPaymentEvent(order);
+            }
         }
         log.info("결제 프로세스 완료");
     }
+
+    // 대량 주문 : 하나의 트랜잭션에서 jdbc batch 로 저장한다
+    // 잔고 부족은 대기 상태로 저장하고, 시스템 예외가 하나라도 있으면 전체 롤백
+    @Transactional
+    public void orderAll(List<Order> orders) {
+        log.info("orderAll 호출 size={}", orders.size());
+        for (Order order : orders) {
+            PaymentOutcome outcome = PaymentOutcome.of(order.getUserName());
+            if (outcome == PaymentOutcome.SYSTEM_ERROR) {
+                throw new RuntimeException("시스템 예외");
+            }
+            order.setPayStatus(outcome.getPayStatus());
+        }
+        orderRepository.saveInBatch(orders);
+        // 이벤트도 같은 크기로 나눠서 flush/clear 한다 (주문 수만큼 영속성 컨텍스트에 쌓이지 않도록)
+        outboxEventRepository.saveInBatch(orders.stream().map(PaymentEvents::of));
+        eventPublisher.publishEvent(OutboxEventRecorded.INSTANCE);
+    }
+
+    // 결제 결과를 주문과 같은 트랜잭션에서 outbox 에 저장한다 (롤백되면 이벤트도 남지 않는다)
+    private void recordPaymentEvent(Order order) {
+        outboxEventRepository.save(PaymentEvents.of(order));
+        eventPublisher.publishEvent(OutboxEventRecorded.INSTANCE);
+    }
 }
@@ -0,0 +1,46 @@
+package hello.springtx.order;
+
+/**
+ * 결제 상태
+ * DB 에는 한 글자 코드(code)로 저장한다 (PayStatusConverter)
+ * label 은 기존 데이터/외부 이벤트(payload) 호환용 한글 이름
+ */
+public enum PayStatus {
+
+    PENDING("P", "대기", "PAYMENT_PENDING"),
+    COMPLETED("C", "완료", "PAYMENT_COMPLETED");
+
+    private final String code;
+    private final String label;
+    private final String eventType;
+
+    PayStatus(String code, String label, String eventType) {
+        this.code = code;
+        this.label = label;
+        this.eventType = eventType;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * 코드 또는 마이그레이션 전 한글 label 로 조회한다
+     */
+    public static PayStatus fromCode(String value) {
+        for (PayStatus status : values()) {
+            if (status.code.equals(value) || status.label.equals(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("알 수 없는 결제 상태 : " + value);
+    }
+}
@@ -0,0 +1,22 @@
+package hello.springtx.order;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * PayStatus <-> 한 글자 코드 (orders.pay_status char(1))
+ * 마이그레이션 전 행(대기, 완료)도 읽을 수 있도록 한글 label 도 받아준다
+ */
+@Converter(autoApply = true)
+public class PayStatusConverter implements AttributeConverter<PayStatus, String> {
+
+    @Override
+    public String convertToDatabaseColumn(PayStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public PayStatus convertToEntityAttribute(String value) {
+        return value == null ? null : PayStatus.fromCode(value);
+    }
+}
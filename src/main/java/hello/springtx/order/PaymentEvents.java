@@ -0,0 +1,19 @@
+package hello.springtx.order;
+
+import hello.springtx.outbox.OutboxEvent;
+
+/**
+ * 결제 결과 outbox 이벤트 생성
+ */
+public final class PaymentEvents {
+
+    private PaymentEvents() {
+    }
+
+    public static OutboxEvent of(Order order) {
+        PayStatus payStatus = order.getPayStatus();
+        // payload 는 기존 소비자와의 호환을 위해 한글 label 을 유지한다
+        String payload = "{\"orderId\":" + order.getId() + ",\"payStatus\":\"" + payStatus.getLabel() + "\"}";
+        return new OutboxEvent("Order", order.getId(), payStatus.getEventType(), payload);
+    }
+}
@@ -0,0 +1,9 @@
+package hello.springtx.order;
+
+/**
+ * 결제 처리 (PendingOrderRetryer 가 대기 주문을 다시 결제할 때 사용)
+ */
+public interface PaymentGateway {
+
+    void pay(Order order) throws NotEnoughMoneyException;
+}
@@ -0,0 +1,32 @@
+package hello.springtx.order;
+
+import java.util.Map;
+
+/**
+ * 고객 이름(userName) 별 결제 결과
+ * String.equals 를 차례로 비교하는 대신 Map 한 번 조회로 결과를 결정한다
+ */
+public enum PaymentOutcome {
+
+    APPROVED(PayStatus.COMPLETED),        // 정상 승인
+    NOT_ENOUGH_MONEY(PayStatus.PENDING),  // 비즈니스 예외 (체크 예외, 커밋)
+    SYSTEM_ERROR(null);                   // 시스템 예외 (런타임 예외, 롤백)
+
+    private static final Map<String, PaymentOutcome> BY_USER_NAME = Map.of(
+            "예외", SYSTEM_ERROR,
+            "잔고 부족", NOT_ENOUGH_MONEY);
+
+    private final PayStatus payStatus;
+
+    PaymentOutcome(PayStatus payStatus) {
+        this.payStatus = payStatus;
+    }
+
+    public PayStatus getPayStatus() {
+        return payStatus;
+    }
+
+    public static PaymentOutcome of(String userName) {
+        return BY_USER_NAME.getOrDefault(userName, APPROVED);
+    }
+}
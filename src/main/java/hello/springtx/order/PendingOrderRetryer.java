@@ -0,0 +1,177 @@
+package hello.springtx.order;
+
+import hello.springtx.outbox.OutboxEventRecorded;
+import hello.springtx.outbox.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * 잔고 부족(NotEnoughMoneyException) 으로 대기(PENDING) 상태가 된 주문을 주기적으로 다시 결제한다.
+ * (springtx.order.retry.enabled=true)
+ *
+ * - (pay_status, id) 인덱스를 사용해서 id 순서로 batch-size 건씩 keyset 페이징한다.
+ * - 여러 워커가 동시에 조회하되, SKIP LOCKED 로 잠근 행만 가져가므로 같은 주문을 두 워커가 처리하지 않는다.
+ * - 실패하면 attemptCount 를 늘리고 지수 백오프 + jitter 만큼 뒤로 nextAttemptAt 을 미룬다.
+ *   max-attempts 를 넘으면 더 이상 재시도하지 않는다.
+ */
+@Slf4j
+public class PendingOrderRetryer {
+
+    private final OrderRepository orderRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate txTemplate;
+
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long intervalMillis;
+
+    private ExecutorService workerPool;
+    private ScheduledExecutorService scheduler;
+
+    public PendingOrderRetryer(OrderRepository orderRepository, OutboxEventRepository outboxEventRepository,
+                               ApplicationEventPublisher eventPublisher, PaymentGateway paymentGateway,
+                               TransactionTemplate txTemplate, int workers, int batchSize, int maxAttempts,
+                               long baseBackoffMillis, long maxBackoffMillis, long intervalMillis) {
+        if (baseBackoffMillis < 1) {
+            throw new IllegalArgumentException("baseBackoffMillis 는 1 이상이어야 합니다. baseBackoffMillis=" + baseBackoffMillis);
+        }
+        if (maxBackoffMillis < baseBackoffMillis) {
+            throw new IllegalArgumentException("maxBackoffMillis 는 baseBackoffMillis(" + baseBackoffMillis
+                    + ") 이상이어야 합니다. maxBackoffMillis=" + maxBackoffMillis);
+        }
+        this.orderRepository = orderRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.paymentGateway = paymentGateway;
+        this.txTemplate = txTemplate;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        workerPool = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("order-retry-", 0).daemon().factory());
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("order-retry-scheduler").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::runSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        workerPool.shutdown();
+        workerPool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 재시도 한 바퀴 : 워커들이 대기 주문이 없을 때까지 batch 를 가져가서 처리한다.
+     * @return 이번에 처리(성공 + 실패) 한 주문 수
+     */
+    public int retryPendingOrders() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Future<Integer>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(workerPool.submit(() -> drain(now)));
+        }
+        int processed = 0;
+        for (Future<Integer> future : futures) {
+            try {
+                processed += future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.warn("대기 주문 재시도 실패", e.getCause());
+            }
+        }
+        return processed;
+    }
+
+    private void runSafely() {
+        try {
+            int processed = retryPendingOrders();
+            if (processed > 0) {
+                log.info("대기 주문 재시도 processed={}", processed);
+            }
+        } catch (RuntimeException e) {
+            log.warn("대기 주문 재시도 실패", e);
+        }
+    }
+
+    // 워커 하나 : keyset 으로 다음 batch 를 잠그고 처리하는 것을 반복한다
+    private int drain(LocalDateTime now) {
+        long lastId = 0L;
+        int processed = 0;
+        while (true) {
+            long from = lastId;
+            List<Long> claimed = txTemplate.execute(status -> processBatch(from, now));
+            if (claimed == null || claimed.isEmpty()) {
+                return processed;
+            }
+            processed += claimed.size();
+            lastId = claimed.get(claimed.size() - 1);
+        }
+    }
+
+    private List<Long> processBatch(long lastId, LocalDateTime now) {
+        List<Order> batch = orderRepository.claimRetryBatch(PayStatus.PENDING, lastId, maxAttempts, now, Limit.of(batchSize));
+        List<Long> ids = new ArrayList<>(batch.size());
+        boolean completed = false;
+        for (Order order : batch) {
+            ids.add(order.getId());
+            order.setAttemptCount(order.getAttemptCount() + 1);
+            try {
+                paymentGateway.pay(order);
+            } catch (NotEnoughMoneyException e) {
+                deferRetry(order);
+                continue;
+            } catch (RuntimeException e) {
+                // 게이트웨이 장애, 잘못된 주문 등 : batch 전체를 롤백하면 attemptCount 도 되돌아가서
+                // 같은 주문이 max-attempts 에 닿지 못하고 매번 batch 를 막으므로, 이 주문만 실패로 기록하고 넘어간다
+                log.warn("대기 주문 결제 실패 orderId={}", order.getId(), e);
+                deferRetry(order);
+                continue;
+            }
+            order.setPayStatus(PayStatus.COMPLETED);
+            order.setNextAttemptAt(null);
+            outboxEventRepository.save(PaymentEvents.of(order));
+            completed = true;
+        }
+        if (completed) {
+            eventPublisher.publishEvent(OutboxEventRecorded.INSTANCE);
+        }
+        return ids;
+    }
+
+    // 조회 기준 시각(now) 이후로 미뤄야 같은 회차의 다른 워커가 다시 가져가지 않는다
+    private void deferRetry(Order order) {
+        order.setNextAttemptAt(LocalDateTime.now().plusNanos(backoffMillis(order.getAttemptCount()) * 1_000_000));
+    }
+
+    // 지수 백오프 (base * 2^(attempt-1), 최대 max) 에 equal jitter 를 적용한다 : (delay/2, delay], 최소 1ms
+    long backoffMillis(int attempt) {
+        long delay = baseBackoffMillis << Math.min(attempt - 1, 30);
+        if (delay <= 0 || delay > maxBackoffMillis) {
+            delay = maxBackoffMillis;
+        }
+        long half = delay / 2;
+        return half + 1 + ThreadLocalRandom.current().nextLong(delay - half);
+    }
+}
@@ -0,0 +1,14 @@
+package hello.springtx.order;
+
+/**
+ * 기본 결제 처리 : OrderService.order 와 같은 규칙 (잔고 부족 고객은 계속 실패)
+ */
+public class SimplePaymentGateway implements PaymentGateway {
+
+    @Override
+    public void pay(Order order) throws NotEnoughMoneyException {
+        if (PaymentOutcome.of(order.getUserName()) == PaymentOutcome.NOT_ENOUGH_MONEY) {
+            throw new NotEnoughMoneyException("잔고가 부족합니다.");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package hello.springtx.outbox;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 같은 프로세스 안에서 이벤트를 받아두는 sink (테스트용)
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<OutboxEvent> batch) {
+        events.addAll(batch);
+    }
+
+    public List<OutboxEvent> getEvents() {
+        return events;
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
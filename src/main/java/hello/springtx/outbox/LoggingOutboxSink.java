@@ -0,0 +1,19 @@
+package hello.springtx.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * 기본 sink : 이벤트를 로그로만 남긴다.
+ */
+@Slf4j
+public class LoggingOutboxSink implements OutboxSink {
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            log.info("outbox event id={} type={} payload={}", event.getId(), event.getEventType(), event.getPayload());
+        }
+    }
+}
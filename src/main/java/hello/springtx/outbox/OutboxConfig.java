@@ -0,0 +1,28 @@
+package hello.springtx.outbox;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * outbox relay (springtx.outbox.relay.enabled=true)
+ * outbox 이벤트 저장은 항상 수행되고, relay 는 설정한 노드에서만 실행한다.
+ * OutboxSink 빈이 없으면 LoggingOutboxSink 를 사용한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.outbox.relay.enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxEventRepository outboxEventRepository, ObjectProvider<OutboxSink> outboxSink,
+                                   PlatformTransactionManager txManager,
+                                   @Value("${springtx.outbox.relay.batch-size:100}") int batchSize,
+                                   @Value("${springtx.outbox.relay.poll-interval-ms:1000}") long pollIntervalMillis) {
+        return new OutboxRelay(outboxEventRepository,
+                outboxSink.getIfUnique(LoggingOutboxSink::new), new TransactionTemplate(txManager), batchSize, pollIntervalMillis);
+    }
+}
@@ -0,0 +1,40 @@
+package hello.springtx.outbox;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 외부 시스템에 전달할 이벤트 (transactional outbox)
+ * 업무 데이터와 같은 트랜잭션에서 저장되므로, 업무 트랜잭션이 커밋된 경우에만 이벤트가 남는다.
+ */
+@Entity
+@Table(name = "outbox_event")
+@Getter
+@Setter
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq_generator")
+    @SequenceGenerator(name = "outbox_event_seq_generator", sequenceName = "outbox_event_seq", allocationSize = 100)
+    private Long id;
+
+    private String aggregateType; // Order
+    private Long aggregateId;
+    private String eventType;     // PAYMENT_COMPLETED, PAYMENT_PENDING
+    private String payload;
+    private LocalDateTime createdAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String aggregateType, Long aggregateId, String eventType, String payload) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+}
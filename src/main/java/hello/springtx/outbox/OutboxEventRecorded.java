@@ -0,0 +1,9 @@
+package hello.springtx.outbox;
+
+/**
+ * outbox 이벤트가 저장되었다는 신호 (커밋 후 relay 를 깨운다)
+ */
+public record OutboxEventRecorded() {
+
+    public static final OutboxEventRecorded INSTANCE = new OutboxEventRecorded();
+}
@@ -0,0 +1,19 @@
+package hello.springtx.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventRepositoryCustom {
+
+    // 가장 오래된 이벤트부터 PK 순서로 limit 건만 읽는다 (전달한 이벤트는 삭제하므로 테이블이 작게 유지된다)
+    // 다른 relay 가 잠근 행은 건너뛴다 (SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<OutboxEvent> findAllByOrderByIdAsc(Limit limit);
+}
@@ -0,0 +1,14 @@
+package hello.springtx.outbox;
+
+import java.util.stream.Stream;
+
+public interface OutboxEventRepositoryCustom {
+
+    /**
+     * 대량 이벤트 저장 : batch_size 마다 flush/clear 해서 영속성 컨텍스트가 계속 커지지 않도록 한다.
+     * 이벤트는 stream 에서 하나씩 꺼내므로 전체 목록을 미리 만들지 않아도 된다.
+     * 호출하는 쪽의 트랜잭션 안에서 실행되어야 한다.
+     * @return 저장한 건수
+     */
+    long saveInBatch(Stream<OutboxEvent> events);
+}
@@ -0,0 +1,39 @@
+package hello.springtx.outbox;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+public class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+
+    private final EntityManager em;
+    private final int batchSize;
+
+    public OutboxEventRepositoryCustomImpl(EntityManager em,
+                                           @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.em = em;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public long saveInBatch(Stream<OutboxEvent> events) {
+        long count = 0;
+        for (Iterator<OutboxEvent> it = events.iterator(); it.hasNext(); ) {
+            em.persist(it.next());
+
+            // jdbc batch 크기 단위로 insert 를 내보내고 1차 캐시를 비운다
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        log.info("outbox event batch 저장 완료 size={}", count);
+        return count;
+    }
+}
@@ -0,0 +1,104 @@
+package hello.springtx.outbox;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * outbox 테이블을 PK 순서로 batch 단위로 읽어서 OutboxSink 에 전달하고 삭제한다.
+ *
+ * - 읽기, 전달, 삭제를 하나의 트랜잭션에서 수행한다. 전달이 실패하면 롤백되어 다음에 다시 전달한다.
+ * - 이벤트를 저장한 트랜잭션이 커밋되면 바로 깨어나고, 그 외에는 poll-interval 마다 확인한다.
+ */
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate txTemplate;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+
+    private final Semaphore signal = new Semaphore(0);
+    private volatile boolean running;
+    private Thread worker;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxSink sink, TransactionTemplate txTemplate,
+                       int batchSize, long pollIntervalMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.txTemplate = txTemplate;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::relayLoop, "outbox-relay");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        signal.release();
+        worker.join(10_000);
+    }
+
+    @TransactionalEventListener
+    public void onRecorded(OutboxEventRecorded event) {
+        if (signal.availablePermits() == 0) {
+            signal.release();
+        }
+    }
+
+    /**
+     * batch 하나를 전달한다.
+     * @return 전달한 이벤트 수
+     */
+    public int relay() {
+        Integer relayed = txTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.findAllByOrderByIdAsc(Limit.of(batchSize));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            sink.publish(events);
+            outboxEventRepository.deleteAllInBatch(events);
+            return events.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                if (relay() < batchSize) {
+                    signal.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                    signal.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                log.warn("outbox relay 실패, {}ms 후 다시 시도합니다.", pollIntervalMillis, e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollIntervalMillis);
+        } catch (InterruptedException e) {
+            running = false;
+        }
+    }
+}
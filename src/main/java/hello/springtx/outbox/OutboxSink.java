@@ -0,0 +1,12 @@
+package hello.springtx.outbox;
+
+import java.util.List;
+
+/**
+ * outbox 이벤트를 전달받는 곳 (메시지 브로커, 외부 API 등)
+ * 예외가 발생하면 해당 batch 는 삭제되지 않고 다음 relay 에서 다시 전달된다. (at-least-once)
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,166 @@
+package hello.springtx.propagation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 로그를 제한된 크기의 큐에 넣고, 백그라운드 스레드가 모아서 별도 트랜잭션으로 일괄 저장한다.
+ * (springtx.log.write-mode=async)
+ *
+ * - 호출한 쪽의 트랜잭션을 보류하지 않으므로 가입 1건당 커넥션을 1개만 사용한다.
+ * - 로그 저장 실패는 회원 트랜잭션에 영향을 주지 않는다. (joinV2 의 REQUIRES_NEW 와 같은 의미)
+ * - 큐가 가득 차면 offer-timeout 만큼 기다리고(backpressure), 그래도 자리가 없으면 호출 스레드에서 직접 저장한다.
+ * - 종료 시 큐에 남은 로그를 모두 저장한 뒤 스레드를 종료한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "springtx.log.write-mode", havingValue = "async")
+public class AsyncLogWriter implements LogWriter {
+
+    private final LogRepository logRepository;
+    private final BlockingQueue<Log> queue;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final long shutdownTimeoutMillis;
+
+    // 큐에 들어갔지만 아직 저장(또는 실패 처리)되지 않은 로그 수
+    private final AtomicLong pending = new AtomicLong();
+    private volatile boolean running;
+    private Thread worker;
+
+    public AsyncLogWriter(LogRepository logRepository,
+                          @Value("${springtx.log.async.capacity:10000}") int capacity,
+                          @Value("${springtx.log.async.batch-size:100}") int batchSize,
+                          @Value("${springtx.log.async.offer-timeout-ms:50}") long offerTimeoutMillis,
+                          @Value("${springtx.log.async.shutdown-timeout-ms:30000}") long shutdownTimeoutMillis) {
+        this.logRepository = logRepository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "async-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void write(Log logMessage) {
+        if (running) {
+            pending.incrementAndGet();
+            try {
+                if (queue.offer(logMessage, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    if (!running) {
+                        // 넣는 사이에 stop() 되었다면 저장 스레드가 이미 끝났을 수 있으므로 직접 비운다
+                        drainRemaining();
+                    }
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pending.decrementAndGet();
+            log.warn("log 큐가 가득 차서 직접 저장합니다. size={}", queue.size());
+        }
+        saveOne(logMessage);
+    }
+
+    /**
+     * 지금까지 큐에 들어간 로그가 모두 처리될 때까지 기다린다.
+     */
+    public boolean flush(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pending.get() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(shutdownTimeoutMillis);
+        if (worker.isAlive()) {
+            log.warn("log 저장 스레드가 종료되지 않았습니다. 남은 로그={}", queue.size());
+            return;
+        }
+        // 저장 스레드가 끝난 뒤에 들어온 로그
+        drainRemaining();
+    }
+
+    private void drainRemaining() {
+        Log logMessage;
+        while ((logMessage = queue.poll()) != null) {
+            try {
+                saveOne(logMessage);
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private void drainLoop() {
+        List<Log> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Log first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                saveBatch(batch);
+            } catch (InterruptedException e) {
+                // 종료 요청이어도 남은 로그는 모두 저장한다
+                running = false;
+            } finally {
+                pending.addAndGet(-batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void saveBatch(List<Log> batch) {
+        try {
+            logRepository.saveAll(batch, batchSize);
+        } catch (RuntimeException e) {
+            // 일괄 저장이 롤백되면 실패한 로그만 버리도록 한 건씩 다시 저장한다
+            log.info("log 일괄 저장 실패, 한 건씩 다시 저장합니다. size={}", batch.size());
+            for (Log logMessage : batch) {
+                logMessage.setId(null);
+                saveOne(logMessage);
+            }
+        }
+    }
+
+    private void saveOne(Log logMessage) {
+        try {
+            logRepository.save(logMessage);
+        } catch (RuntimeException e) {
+            log.info("로그 저장에 실패했습니다. logMessage={}", logMessage.getMessage());
+        }
+    }
+}
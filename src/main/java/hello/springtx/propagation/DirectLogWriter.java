@@ -0,0 +1,27 @@
+package hello.springtx.propagation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 기본 로그 저장 방식 : LogRepository.save (REQUIRES_NEW) 를 그대로 호출한다.
+ * 호출할 때마다 외부 트랜잭션을 보류하고 커넥션을 하나 더 사용한다.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "springtx.log.write-mode", havingValue = "direct", matchIfMissing = true)
+public class DirectLogWriter implements LogWriter {
+
+    private final LogRepository logRepository;
+
+    @Override
+    public void write(Log logMessage) {
+        logRepository.save(logMessage);
+    }
+
+    @Override
+    public int extraConnections() {
+        return 1;
+    }
+}
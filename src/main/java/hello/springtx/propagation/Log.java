@@ -1,21 +1,40 @@
 package hello.springtx.propagation;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
 @Entity
+@Table(indexes = @Index(name = "idx_log_message", columnList = "message"))
 @Slf4j
 @Getter
 @Setter
 public class Log {
 
-    @Id @GeneratedValue
+    public static final int ID_ALLOCATION_SIZE = 100; // 로그는 가입마다 쌓이므로 크게 잡는다
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "log_seq_generator")
+    @SequenceGenerator(name = "log_seq_generator", sequenceName = "log_seq", allocationSize = Log.ID_ALLOCATION_SIZE)
     private Long id;
     private String message;
+    private LocalDateTime createdAt;
+
+    // 생성 일자 (yyyyMMdd), MySQL 에서는 파티션 키 (LogRetentionJob 참고)
+    @Column(nullable = false)
+    private int bucket;
 
     public Log(){
 
@@ -24,4 +43,20 @@ public class Log {
     public Log(String message) {
         this.message = message;
     }
+
+    @PrePersist
+    void onPersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        bucket = bucketOf(createdAt.toLocalDate());
+    }
+
+    public static int bucketOf(LocalDate date) {
+        return date.getYear() * 10_000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    public static LocalDate dateOf(int bucket) {
+        return LocalDate.of(bucket / 10_000, bucket / 100 % 100, bucket % 100);
+    }
 }
@@ -1,20 +1,31 @@
 package hello.springtx.propagation;
 
+import hello.springtx.tx.StatelessScroll;
 import jakarta.persistence.EntityManager;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Slf4j
 @Repository
-@RequiredArgsConstructor
 public class LogRepository {
 
     private final EntityManager em;
+    private final int lookupDays;
+
+    public LogRepository(EntityManager em, @Value("${springtx.log.lookup-days:7}") int lookupDays) {
+        this.em = em;
+        this.lookupDays = lookupDays;
+    }
 
      @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void save(Log logMessage) {
@@ -27,9 +38,68 @@ public class LogRepository {
         }
     }
 
+    // 외부 트랜잭션의 커넥션에서 savepoint 로 격리한다 (NestedLogWriter)
+    // 실패하면 savepoint 까지만 롤백되고 외부 트랜잭션은 계속 진행한다
+    // insert 실패도 이 안에서 발생하도록 flush 한다
+    @Transactional(propagation = Propagation.NESTED)
+    public void saveNested(Log logMessage) {
+        log.info("log 저장 (nested)");
+        em.persist(logMessage);
+
+        if (logMessage.getMessage().contains("로그예외")) {
+            log.info("log 저장 시 예외 발생");
+            throw new RuntimeException("예외 발생");
+        }
+        em.flush();
+    }
+
+    // AsyncLogWriter 가 모아둔 로그를 하나의 트랜잭션에서 JDBC batch 로 저장한다
+    // 하나라도 실패하면 전체가 롤백되고, 호출한 쪽에서 한 건씩 다시 저장한다
+    @Transactional
+    public void saveAll(List<Log> logMessages, int batchSize) {
+        log.info("log 일괄 저장 size={}", logMessages.size());
+        em.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        for (Log logMessage : logMessages) {
+            em.persist(logMessage);
+
+            if (logMessage.getMessage().contains("로그예외")) {
+                log.info("log 일괄 저장 시 예외 발생");
+                throw new RuntimeException("예외 발생");
+            }
+        }
+    }
+
+    // 최근 lookup-days 일의 bucket 만 조회한다 (MySQL 은 해당 파티션만 읽는다)
+    // message 인덱스를 사용하고, 한 건만 조회한다 (limit 1)
     public Optional<Log> find(String message) {
-        return em.createQuery("select l from Log l where l.message= :message", Log.class)
+        return find(message, recentFrom());
+    }
+
+    public Optional<Log> find(String message, LocalDate from) {
+        return em.createQuery("select l from Log l where l.message= :message and l.bucket >= :bucket", Log.class)
                 .setParameter("message", message)
-                .getResultList().stream().findAny();
+                .setParameter("bucket", Log.bucketOf(from))
+                .setMaxResults(1)
+                .getResultList().stream().findFirst();
+    }
+
+    // 조회 전용 : 읽기 전용 엔티티로 조회해서 변경 감지용 스냅샷을 만들지 않는다
+    public Optional<Log> findReadOnly(String message) {
+        return em.createQuery("select l from Log l where l.message= :message and l.bucket >= :bucket", Log.class)
+                .setParameter("message", message)
+                .setParameter("bucket", Log.bucketOf(recentFrom()))
+                .setMaxResults(1)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList().stream().findFirst();
+    }
+
+    // 전체 로그를 id 순서로 한 건씩 읽는다 (StatelessSession + FORWARD_ONLY 커서, 영속성 컨텍스트에 쌓이지 않는다)
+    @Transactional(readOnly = true)
+    public long streamAll(int fetchSize, Consumer<? super Log> action) {
+        return StatelessScroll.forEach(em, "select l from Log l order by l.id", Log.class, fetchSize, action);
+    }
+
+    private LocalDate recentFrom() {
+        return LocalDate.now().minusDays(lookupDays - 1L);
     }
 }
@@ -0,0 +1,29 @@
+package hello.springtx.propagation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * log 보존 기간 관리 (springtx.log.retention.enabled=true)
+ * MySQL 이면 파티션을 drop 하고, 그 외에는 bucket 범위로 나눠서 delete 한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.log.retention.enabled", havingValue = "true")
+public class LogRetentionConfig {
+
+    @Bean
+    public LogRetentionJob logRetentionJob(JdbcTemplate jdbcTemplate,
+                                           @Value("${springtx.log.retention.days:30}") int retentionDays,
+                                           @Value("${springtx.log.retention.ahead-days:7}") int aheadDays,
+                                           @Value("${springtx.log.retention.delete-batch-size:10000}") int deleteBatchSize,
+                                           @Value("${springtx.log.retention.initial-delay-ms:0}") long initialDelayMillis,
+                                           @Value("${springtx.log.retention.interval-ms:3600000}") long intervalMillis) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        return new LogRetentionJob(jdbcTemplate, "MySQL".equals(product),
+                retentionDays, aheadDays, deleteBatchSize, initialDelayMillis, intervalMillis);
+    }
+}
@@ -0,0 +1,176 @@
+package hello.springtx.propagation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * log 보존 기간 관리 (bucket = 생성 일자 yyyyMMdd)
+ *
+ * - partitioned (MySQL) : 일자별 파티션 p{bucket} 을 ahead-days 만큼 미리 만들고(pmax 를 나눈다),
+ *   보존 기간이 지난 파티션을 drop partition 으로 한 번에 지운다. (undo 로그, 행 잠금 없음)
+ * - 그 외 (H2) : 파티션이 없으므로 보존 기간이 지난 bucket 을 delete-batch-size 건씩 나눠서 지운다.
+ * - bucket 0 (파티션 도입 전 로그, p_legacy) 은 지우지 않는다.
+ */
+@Slf4j
+public class LogRetentionJob {
+
+    private static final String PARTITION_PREFIX = "p";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean partitioned;
+    private final int retentionDays;
+    private final int aheadDays;
+    private final int deleteBatchSize;
+    private final long initialDelayMillis;
+    private final long intervalMillis;
+
+    private ScheduledExecutorService scheduler;
+
+    public LogRetentionJob(JdbcTemplate jdbcTemplate, boolean partitioned, int retentionDays, int aheadDays,
+                           int deleteBatchSize, long initialDelayMillis, long intervalMillis) {
+        if (retentionDays < 1) {
+            throw new IllegalArgumentException("retentionDays 는 1 이상이어야 합니다. retentionDays=" + retentionDays);
+        }
+        if (aheadDays < 0) {
+            throw new IllegalArgumentException("aheadDays 는 0 이상이어야 합니다. aheadDays=" + aheadDays);
+        }
+        if (deleteBatchSize < 1) {
+            // 0 이면 delete ... limit 0 이 계속 0 건을 지우면서 끝나지 않는다
+            throw new IllegalArgumentException("deleteBatchSize 는 1 이상이어야 합니다. deleteBatchSize=" + deleteBatchSize);
+        }
+        if (initialDelayMillis < 0) {
+            throw new IllegalArgumentException("initialDelayMillis 는 0 이상이어야 합니다. initialDelayMillis=" + initialDelayMillis);
+        }
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("intervalMillis 는 1 이상이어야 합니다. intervalMillis=" + intervalMillis);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitioned = partitioned;
+        this.retentionDays = retentionDays;
+        this.aheadDays = aheadDays;
+        this.deleteBatchSize = deleteBatchSize;
+        this.initialDelayMillis = initialDelayMillis;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("log-retention").daemon().factory());
+        // 시작하자마자 오늘 파티션이 있어야 하므로 기본값(initial-delay-ms=0) 은 바로 한 번 실행한다
+        scheduler.scheduleWithFixedDelay(this::runSafely, initialDelayMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    public Result purge() {
+        return purge(LocalDate.now());
+    }
+
+    /**
+     * today 기준으로 파티션을 준비하고, 보존 기간(today 포함 retention-days 일)이 지난 bucket 을 지운다.
+     */
+    public Result purge(LocalDate today) {
+        int keepFrom = Log.bucketOf(today.minusDays(retentionDays - 1L));
+        if (!partitioned) {
+            return new Result(List.of(), List.of(), deleteBefore(keepFrom));
+        }
+        List<Integer> buckets = dailyPartitions();
+        List<String> created = createPartitions(today, buckets);
+        List<String> dropped = dropPartitions(keepFrom, buckets);
+        return new Result(created, dropped, 0);
+    }
+
+    // 일자별 파티션 bucket 목록 (오름차순), p_legacy / pmax 는 제외
+    private List<Integer> dailyPartitions() {
+        return jdbcTemplate.queryForList("""
+                        select partition_name from information_schema.partitions
+                        where table_schema = database() and table_name = 'log' and partition_name is not null
+                        order by partition_ordinal_position""", String.class)
+                .stream()
+                .filter(name -> name.matches(PARTITION_PREFIX + "\\d{8}"))
+                .map(name -> Integer.parseInt(name.substring(PARTITION_PREFIX.length())))
+                .toList();
+    }
+
+    // range 파티션은 뒤에만 붙일 수 있으므로 마지막 파티션 이후 일자만 pmax 를 나눠서 만든다
+    // pmax 가 비어 있으면 데이터 이동 없이 끝난다
+    private List<String> createPartitions(LocalDate today, List<Integer> buckets) {
+        int last = buckets.isEmpty() ? 0 : buckets.get(buckets.size() - 1);
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i <= aheadDays; i++) {
+            LocalDate day = today.plusDays(i);
+            int bucket = Log.bucketOf(day);
+            if (bucket <= last) {
+                continue;
+            }
+            String name = PARTITION_PREFIX + bucket;
+            jdbcTemplate.execute("alter table log reorganize partition pmax into ("
+                    + "partition " + name + " values less than (" + Log.bucketOf(day.plusDays(1)) + "), "
+                    + "partition pmax values less than maxvalue)");
+            created.add(name);
+        }
+        if (!created.isEmpty()) {
+            log.info("log 파티션 생성 {}", created);
+        }
+        return created;
+    }
+
+    private List<String> dropPartitions(int keepFrom, List<Integer> buckets) {
+        List<String> dropped = buckets.stream()
+                .filter(bucket -> bucket < keepFrom)
+                .map(bucket -> PARTITION_PREFIX + bucket)
+                .toList();
+        if (!dropped.isEmpty()) {
+            jdbcTemplate.execute("alter table log drop partition " + String.join(", ", dropped));
+            log.info("log 파티션 삭제 {}", dropped);
+        }
+        return dropped;
+    }
+
+    // 한 번에 지우면 undo 로그가 커지고 잠금이 길어지므로 나눠서 지운다 (문장마다 자동 커밋)
+    private long deleteBefore(int keepFrom) {
+        long deleted = 0;
+        int count;
+        do {
+            count = jdbcTemplate.update("delete from log where bucket > 0 and bucket < ? limit ?", keepFrom, deleteBatchSize);
+            deleted += count;
+        } while (count == deleteBatchSize);
+        if (deleted > 0) {
+            log.info("log 삭제 bucket < {} count={}", keepFrom, deleted);
+        }
+        return deleted;
+    }
+
+    private void runSafely() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            log.warn("log 보존 기간 정리 실패", e);
+        }
+    }
+
+    /**
+     * @param createdPartitions 새로 만든 파티션
+     * @param droppedPartitions 삭제한 파티션
+     * @param deletedRows       파티션이 없을 때 delete 로 지운 행 수
+     */
+    public record Result(List<String> createdPartitions, List<String> droppedPartitions, long deletedRows) {
+    }
+}
@@ -0,0 +1,15 @@
+package hello.springtx.propagation;
+
+/**
+ * 회원 가입 시 남기는 로그 저장 방식
+ * springtx.log.write-mode 로 구현체를 선택한다. (direct: 기본값, async, nested, write-behind)
+ */
+public interface LogWriter {
+
+    void write(Log logMessage);
+
+    // 로그 저장 시 호출한 쪽의 커넥션 외에 추가로 사용하는 커넥션 수 (REQUIRES_NEW 면 1)
+    default int extraConnections() {
+        return 0;
+    }
+}
@@ -5,11 +5,16 @@ import lombok.Getter;
 import lombok.Setter;
 
 @Entity
+@Table(indexes = @Index(name = "idx_member_user_name", columnList = "user_name"))
 @Getter
 @Setter
 public class Member {
 
-    @Id @GeneratedValue
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = Member.ID_ALLOCATION_SIZE)
     private Long id;
 
     private String userName;
@@ -0,0 +1,144 @@
+package hello.springtx.propagation;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * userName 으로 조회한 회원 캐시 (springtx.member.cache.enabled=true)
+ *
+ * - 최대 maxSize 건, LRU 로 제거하고 ttl 이 지난 항목은 조회할 때 버린다.
+ * - 조회 결과가 없는 것도 캐시한다.
+ * - 캐시에는 (id, userName) 값만 보관하고, 꺼낼 때마다 영속성 컨텍스트와 관계없는 새 Member 를 만든다.
+ * - 무효화는 커밋 후(afterCommit) 에만 한다. 롤백되면 캐시는 그대로다. (MemberServiceTest 의 롤백 시나리오)
+ * - 무효화가 일어나면 generation 이 바뀌고, 그 전에 DB 조회를 시작한 결과는 캐시에 넣지 않는다. (오래된 값이 다시 들어가지 않게)
+ */
+public class MemberCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public MemberCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) { // access order : LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > MemberCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<Member> find(String userName, Function<String, Optional<Member>> loader) {
+        Entry cached = lookup(userName);
+        if (cached != null) {
+            hits.increment();
+            return cached.toMember(userName);
+        }
+        misses.increment();
+        long loadGeneration = generation.get();
+        Optional<Member> loaded = loader.apply(userName);
+        put(userName, new Entry(loaded.map(Member::getId).orElse(null), System.nanoTime() + ttlNanos), loadGeneration);
+        return loaded;
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋된 후에 무효화한다 (트랜잭션이 없으면 바로 무효화)
+     */
+    public void invalidateAfterCommit(String userName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userName);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(userName);
+            }
+        });
+    }
+
+    public void invalidate(String userName) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.remove(userName);
+        }
+        invalidations.increment();
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), invalidations.sum(), size);
+    }
+
+    private Entry lookup(String userName) {
+        synchronized (entries) {
+            Entry entry = entries.get(userName);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt - System.nanoTime() < 0) {
+                entries.remove(userName);
+                expirations.increment();
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void put(String userName, Entry entry, long loadGeneration) {
+        synchronized (entries) {
+            if (generation.get() == loadGeneration) {
+                entries.put(userName, entry);
+            }
+        }
+    }
+
+    private record Entry(Long id, long expiresAt) { // id 가 null 이면 조회 결과 없음
+
+        Optional<Member> toMember(String userName) {
+            if (id == null) {
+                return Optional.empty();
+            }
+            Member member = new Member(userName);
+            member.setId(id);
+            return Optional.of(member);
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, long expirations, long invalidations, int size) {
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
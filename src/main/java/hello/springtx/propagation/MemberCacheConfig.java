@@ -0,0 +1,20 @@
+package hello.springtx.propagation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 회원 조회 캐시 (springtx.member.cache.enabled=true)
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.member.cache.enabled", havingValue = "true")
+public class MemberCacheConfig {
+
+    @Bean
+    public MemberCache memberCache(@Value("${springtx.member.cache.max-size:10000}") int maxSize,
+                                   @Value("${springtx.member.cache.ttl-ms:60000}") long ttlMillis) {
+        return new MemberCache(maxSize, ttlMillis);
+    }
+}
@@ -1,31 +1,75 @@
 package hello.springtx.propagation;
 
 import jakarta.persistence.EntityManager;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Optional;
 
 @Slf4j
 @Repository
-@RequiredArgsConstructor
 public class MemberRepository {
 
     private final EntityManager em;
+    private final MemberCache memberCache; // springtx.member.cache.enabled=false 이면 null
+
+    public MemberRepository(EntityManager em, ObjectProvider<MemberCache> memberCache) {
+        this.em = em;
+        this.memberCache = memberCache.getIfAvailable();
+    }
 
      @Transactional
     public void save(Member member) {
         log.info("member 저장");
         em.persist(member);
+        if (memberCache != null) {
+            memberCache.invalidateAfterCommit(member.getUserName());
+        }
     }
 
     // jpql 은 대소문자를 구분한다 from member X / from Member O
     // 예외 발생 : org.springframework.dao.InvalidDataAccessApiUsageException: org.hibernate.query.sqm.UnknownEntityException: Could not resolve root entity 'member'
+    // user_name 인덱스를 사용하고, 한 건만 조회한다 (limit 1)
+    // 캐시는 트랜잭션 밖에서만 사용한다
+    // - 쓰기 트랜잭션 안에서는 자신이 저장한 회원도 보여야 하고, 관리되는 엔티티를 반환해야 한다
+    // - readOnly 트랜잭션도 REPEATABLE READ 스냅샷이 afterCommit 무효화보다 오래되었을 수 있어서,
+    //   그 결과(대개 "없음") 를 ttl 동안 캐시하게 된다. 트랜잭션 안에서는 캐시를 읽지도 채우지도 않는다
+
     public Optional<Member> find(String userName) {
+        if (useCache()) {
+            return memberCache.find(userName, this::select);
+        }
+        return select(userName);
+    }
+
+    private Optional<Member> select(String userName) {
         return em.createQuery("select m from Member m where m.userName= :userName", Member.class)
                 .setParameter("userName", userName)
-                .getResultList().stream().findAny();
+                .setMaxResults(1)
+                .getResultList().stream().findFirst();
+    }
+
+    // 조회 전용 : 읽기 전용 엔티티로 조회해서 변경 감지용 스냅샷을 만들지 않는다 (수정해도 반영되지 않는다)
+    public Optional<Member> findReadOnly(String userName) {
+        if (useCache()) {
+            return memberCache.find(userName, this::selectReadOnly);
+        }
+        return selectReadOnly(userName);
+    }
+
+    private Optional<Member> selectReadOnly(String userName) {
+        return em.createQuery("select m from Member m where m.userName= :userName", Member.class)
+                .setParameter("userName", userName)
+                .setMaxResults(1)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList().stream().findFirst();
+    }
+
+    private boolean useCache() {
+        return memberCache != null && !TransactionSynchronizationManager.isActualTransactionActive();
     }
 }
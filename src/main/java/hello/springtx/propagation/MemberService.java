@@ -1,8 +1,10 @@
 package hello.springtx.propagation;
 
+import hello.springtx.tx.TransactionExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
@@ -10,12 +12,26 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class MemberService {
 
+    private static final TransactionDefinition JOIN_TX = TransactionExecutor.required("MemberService.joinV3");
+
     private final MemberRepository memberRepository;
-    private final LogRepository logRepository;
+    private final LogWriter logWriter; // springtx.log.write-mode (direct: LogRepository.save 직접 호출, async: 백그라운드 일괄 저장, nested: savepoint, write-behind: 커밋 직전 일괄 저장)
+    private final TransactionExecutor txExecutor;
+
+    // join 1건이 동시에 사용하는 커넥션 수 (회원 트랜잭션 + 로그 저장 방식에 따른 추가 커넥션)
+    public int connectionsPerJoin() {
+        return 1 + logWriter.extraConnections();
+    }
 
     // 예외가 발생하지 않은 로직 joinV1
     @Transactional // member 와 log Repository 의 트랜잭션을 제거하고 서비스에서 하나의 트랜잭션으로 관리
     public void joinV1(String userName) {
+        saveMemberAndLog(userName);
+    }
+
+    // 예외 발생 로직 joinV2
+    @Transactional
+    public void joinV2(String userName) {
         Member member = new Member(userName);
         Log logMessage = new Log(userName);
 
@@ -24,13 +40,22 @@ public class MemberService {
         log.info("== memberRepository 호출 종료 ==");
 
         log.info("== logRepository 호출 시작 ==");
-        logRepository.save(logMessage);
+        try {
+            logWriter.write(logMessage);
+        } catch (RuntimeException e) {
+            log.info("로그 저장에 실패했습니다. logMessage={}", logMessage.getMessage());
+            log.info("정상 흐름 반환");
+        }
         log.info("== logRepository 호출 종료 ==");
     }
 
-    // 예외 발생 로직 joinV2
-    @Transactional
-    public void joinV2(String userName) {
+    // joinV1 과 같은 로직을 프록시 없이 TransactionExecutor 로 실행한다
+    // 같은 클래스 안에서 호출해도 트랜잭션이 적용된다 (self-invocation)
+    public void joinV3(String userName) {
+        txExecutor.run(JOIN_TX, () -> saveMemberAndLog(userName));
+    }
+
+    private void saveMemberAndLog(String userName) {
         Member member = new Member(userName);
         Log logMessage = new Log(userName);
 
@@ -39,12 +64,7 @@ public class MemberService {
         log.info("== memberRepository 호출 종료 ==");
 
         log.info("== logRepository 호출 시작 ==");
-        try {
-            logRepository.save(logMessage);
-        } catch (RuntimeException e) {
-            log.info("로그 저장에 실패했습니다. logMessage={}", logMessage.getMessage());
-            log.info("정상 흐름 반환");
-        }
+        logWriter.write(logMessage);
         log.info("== logRepository 호출 종료 ==");
     }
 }
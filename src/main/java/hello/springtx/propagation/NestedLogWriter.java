@@ -0,0 +1,23 @@
+package hello.springtx.propagation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * LogRepository.saveNested (NESTED) 로 저장한다. (springtx.log.write-mode=nested)
+ * 외부 트랜잭션이 있으면 같은 커넥션에서 savepoint 를 만들고, 실패하면 savepoint 까지만 롤백한다.
+ * REQUIRES_NEW 와 달리 커넥션을 추가로 사용하지 않지만, 로그는 외부 트랜잭션이 커밋될 때 함께 커밋된다.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "springtx.log.write-mode", havingValue = "nested")
+public class NestedLogWriter implements LogWriter {
+
+    private final LogRepository logRepository;
+
+    @Override
+    public void write(Log logMessage) {
+        logRepository.saveNested(logMessage);
+    }
+}
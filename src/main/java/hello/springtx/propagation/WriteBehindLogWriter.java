@@ -0,0 +1,114 @@
+package hello.springtx.propagation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 트랜잭션 동안 로그를 모아두었다가 beforeCommit 에서 같은 트랜잭션으로 한 번에 (JDBC batch) 저장한다.
+ * 롤백되면 저장하지 않고 버린다. (springtx.log.write-mode=write-behind)
+ *
+ * - 대상 트랜잭션은 이름으로 지정한다. (springtx.log.write-behind.methods, "클래스.메서드" 또는 전체 이름)
+ *   로그 저장 실패가 커밋 실패(회원 롤백)가 되므로, 로그 실패를 회원 트랜잭션과 분리하는 joinV2 같은 메서드는 넣지 않는다.
+ * - 대상이 아니거나 트랜잭션이 없으면 LogRepository.save (REQUIRES_NEW) 로 바로 저장한다.
+ * - 버퍼는 TransactionSynchronization 에 두므로 REQUIRES_NEW 로 보류된 트랜잭션의 로그와 섞이지 않는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "springtx.log.write-mode", havingValue = "write-behind")
+public class WriteBehindLogWriter implements LogWriter {
+
+    private final LogRepository logRepository;
+    private final Set<String> methods;
+    private final int batchSize;
+
+    // 트랜잭션 이름별 대상 여부
+    private final Map<String, Boolean> targets = new ConcurrentHashMap<>();
+
+    public WriteBehindLogWriter(LogRepository logRepository,
+                                @Value("${springtx.log.write-behind.methods:MemberService.joinV1,MemberService.joinV3}") Set<String> methods,
+                                @Value("${springtx.log.write-behind.batch-size:100}") int batchSize) {
+        this.logRepository = logRepository;
+        this.methods = Set.copyOf(methods);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void write(Log logMessage) {
+        LogBuffer buffer = currentBuffer();
+        if (buffer == null) {
+            logRepository.save(logMessage);
+            return;
+        }
+        buffer.logs.add(logMessage);
+    }
+
+    // 대상이 아닌 메서드는 REQUIRES_NEW 로 저장하므로 최대 1개
+    @Override
+    public int extraConnections() {
+        return 1;
+    }
+
+    private LogBuffer currentBuffer() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (name == null || !targets.computeIfAbsent(name, this::isTarget)) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof LogBuffer buffer && buffer.owner == this) {
+                return buffer;
+            }
+        }
+        LogBuffer buffer = new LogBuffer(this);
+        TransactionSynchronizationManager.registerSynchronization(buffer);
+        return buffer;
+    }
+
+    private boolean isTarget(String name) {
+        for (String method : methods) {
+            if (name.equals(method) || name.endsWith("." + method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class LogBuffer implements TransactionSynchronization {
+
+        private final WriteBehindLogWriter owner;
+        private final List<Log> logs = new ArrayList<>();
+
+        private LogBuffer(WriteBehindLogWriter owner) {
+            this.owner = owner;
+        }
+
+        // 트랜잭션이 아직 진행 중이므로 saveAll(REQUIRED) 은 같은 트랜잭션에 참여하고, 커밋 시 flush 된다
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!logs.isEmpty()) {
+                log.debug("write-behind log 저장 size={}", logs.size());
+                owner.logRepository.saveAll(logs, owner.batchSize);
+                logs.clear();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            logs.clear(); // 롤백이면 저장하지 않은 로그를 버린다
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package hello.springtx.tx;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 커넥션 풀 크기만큼의 허가(permit) 를 관리한다.
+ * 트랜잭션을 시작하기 전에 필요한 커넥션 수만큼 허가를 받아서, 풀 안에서 대기하는 스레드가 생기지 않도록 한다.
+ * (가상 스레드는 Semaphore 에서 기다리는 동안 캐리어 스레드를 붙잡지 않는다)
+ */
+public class ConnectionBudget {
+
+    private static final int DEFAULT_POOL_SIZE = 10; // Hikari 기본 풀 크기
+
+    private final int maxConnections;
+    private final Semaphore permits;
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+
+    public ConnectionBudget(int maxConnections) {
+        this.maxConnections = maxConnections;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * Hikari 커넥션 풀 크기 (Hikari 가 아니거나 설정되지 않았으면 기본값 10)
+     */
+    public static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                int size = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                if (size > 0) {
+                    return size;
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("커넥션 풀 크기를 확인할 수 없습니다.", e);
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+
+    public void acquire(int connections, long timeout, TimeUnit unit) {
+        if (connections > maxConnections) {
+            throw new CannotCreateTransactionException(
+                    "필요한 커넥션 수(" + connections + ")가 커넥션 풀 크기(" + maxConnections + ")보다 큽니다.");
+        }
+        try {
+            if (!tryAcquire(connections, timeout, unit)) {
+                throw new CannotCreateTransactionException(
+                        "커넥션 예산을 얻지 못했습니다. required=" + connections + ", inUse=" + inUse.get() + ", max=" + maxConnections);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotCreateTransactionException("커넥션 예산 대기 중 인터럽트", e);
+        }
+    }
+
+    /**
+     * timeout 안에 허가를 얻지 못하면 false (예외 타입은 호출하는 쪽에서 정한다)
+     */
+    public boolean tryAcquire(int connections, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!permits.tryAcquire(connections, timeout, unit)) {
+            return false;
+        }
+        int current = inUse.addAndGet(connections);
+        peak.accumulateAndGet(current, Math::max);
+        return true;
+    }
+
+    public void release(int connections) {
+        inUse.addAndGet(-connections);
+        permits.release(connections);
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getInUse() {
+        return inUse.get();
+    }
+
+    public int getPeak() {
+        return peak.get();
+    }
+}
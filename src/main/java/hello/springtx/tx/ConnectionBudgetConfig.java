@@ -0,0 +1,35 @@
+package hello.springtx.tx;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * REQUIRES_NEW 커넥션 예약 (springtx.tx.connection-budget.enabled=true)
+ * 등록된 Hikari 커넥션 풀 (기본 dataSource, 읽기/쓰기 분리 시 primary / replica) 을 ConnectionBudgetDataSource 로 감싼다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.tx.connection-budget.enabled", havingValue = "true")
+public class ConnectionBudgetConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionBudgetDataSourcePostProcessor(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    int poolSize = env.getProperty("springtx.tx.connection-budget.pool-size", Integer.class, 0);
+                    return new ConnectionBudgetDataSource(pool,
+                            poolSize > 0 ? poolSize : ConnectionBudget.poolSize(pool),
+                            env.getProperty("springtx.tx.connection-budget.requires-new-reserve", Integer.class, 1),
+                            env.getProperty("springtx.tx.connection-budget.acquire-timeout-ms", Long.class, 30_000L),
+                            env.getProperty("springtx.tx.connection-budget.requires-new-timeout-ms", Long.class, 1_000L));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,179 @@
+package hello.springtx.tx;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * REQUIRES_NEW 로 인한 커넥션 풀 교착을 막는 DataSource (커넥션 풀을 감싼다)
+ *
+ * 외부 트랜잭션이 커넥션을 쥔 채로 REQUIRES_NEW 가 커넥션을 하나 더 요청하면,
+ * 풀 크기 N 만큼의 외부 트랜잭션이 동시에 들어온 순간 모두가 서로를 기다리게 된다.
+ * 트랜잭션 밖의 조회, JdbcTemplate autocommit 작업, NOT_SUPPORTED 구간도 같은 풀에서 커넥션을 빌리므로
+ * 트랜잭션 매니저가 아니라 getConnection 에서 풀을 두 부분으로 나눈다.
+ *
+ * - outer : 커넥션을 하나도 쥐고 있지 않은 스레드는 N - reserve 개까지만 동시에 빌린다.
+ * - inner : 이미 커넥션을 쥔 스레드의 요청 (REQUIRES_NEW, 트랜잭션을 보류한 NOT_SUPPORTED 안의 조회 등) 은 예약된 reserve 개를 사용한다.
+ *           예약분도 얻지 못하면 (REQUIRES_NEW 안의 REQUIRES_NEW 등) 풀에서 무한정 기다리지 않고 바로 실패한다.
+ *
+ * 두 예산의 합이 풀 크기이므로 이 DataSource 를 거친 요청은 풀 안에서 기다리지 않는다.
+ * 풀을 직접 꺼내서(unwrap) 빌리는 커넥션은 예산에 포함되지 않는다.
+ */
+public class ConnectionBudgetDataSource extends DelegatingDataSource implements Closeable {
+
+    // 스레드가 지금 쥐고 있는 커넥션 수 (풀이 여러 개여도 함께 센다 : 다른 풀의 커넥션을 쥐고 기다려도 교착이 생긴다)
+    private static final ThreadLocal<AtomicInteger> HELD = ThreadLocal.withInitial(AtomicInteger::new);
+
+    private final ConnectionBudget outerBudget;
+    private final ConnectionBudget innerBudget;
+    private final long outerTimeoutMillis;
+    private final long innerTimeoutMillis;
+
+    public ConnectionBudgetDataSource(DataSource pool, int poolSize, int requiresNewReserve,
+                                      long outerTimeoutMillis, long innerTimeoutMillis) {
+        super(pool);
+        if (requiresNewReserve < 1 || requiresNewReserve >= poolSize) {
+            throw new IllegalArgumentException("requiresNewReserve 는 1 이상, 풀 크기(" + poolSize + ") 미만이어야 합니다.");
+        }
+        this.outerBudget = new ConnectionBudget(poolSize - requiresNewReserve);
+        this.innerBudget = new ConnectionBudget(requiresNewReserve);
+        this.outerTimeoutMillis = outerTimeoutMillis;
+        this.innerTimeoutMillis = innerTimeoutMillis;
+    }
+
+    public ConnectionBudget getOuterBudget() {
+        return outerBudget;
+    }
+
+    public ConnectionBudget getInnerBudget() {
+        return innerBudget;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return borrow(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return borrow(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    // 빈 종료 시 감싼 풀도 닫는다 (destroy method 추론은 감싼 객체 기준)
+    @Override
+    public void close() throws IOException {
+        if (obtainTargetDataSource() instanceof Closeable pool) {
+            pool.close();
+        }
+    }
+
+    private Connection borrow(ConnectionSupplier supplier) throws SQLException {
+        AtomicInteger held = HELD.get();
+        ConnectionBudget budget = held.get() > 0 ? innerBudget : outerBudget;
+        reserve(budget);
+
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException | Error e) {
+            budget.release(1);
+            throw e;
+        }
+        held.incrementAndGet();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new BudgetConnectionHandler(connection, budget, held));
+    }
+
+    private void reserve(ConnectionBudget budget) throws SQLException {
+        boolean inner = budget == innerBudget;
+        try {
+            if (budget.tryAcquire(1, inner ? innerTimeoutMillis : outerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("커넥션 예산 대기 중 인터럽트", e);
+        }
+        if (inner) {
+            throw new SQLTransientConnectionException("이미 커넥션을 쥔 스레드가 사용할 예약 커넥션이 없습니다."
+                    + " 외부 트랜잭션이 커넥션을 쥐고 있어 풀에서 기다리면 교착 상태가 됩니다."
+                    + " springtx.tx.connection-budget.requires-new-reserve 를 늘리거나 중첩 REQUIRES_NEW 를 줄이세요."
+                    + " inUse=" + innerBudget.getInUse() + ", max=" + innerBudget.getMaxConnections());
+        }
+        throw new SQLTransientConnectionException("커넥션 예산을 얻지 못했습니다. inUse=" + outerBudget.getInUse()
+                + ", max=" + outerBudget.getMaxConnections());
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    /**
+     * close() 할 때 예산과 스레드의 커넥션 수를 한 번만 돌려준다. 나머지 호출은 실제 커넥션에 위임한다.
+     */
+    private static final class BudgetConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final ConnectionBudget budget;
+        private final AtomicInteger held; // 커넥션을 빌린 스레드의 카운터 (다른 스레드에서 닫아도 맞게 줄어든다)
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private BudgetConnectionHandler(Connection target, ConnectionBudget budget, AtomicInteger held) {
+            this.target = target;
+            this.budget = budget;
+            this.held = held;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "getTargetConnection" -> {
+                    return target;
+                }
+                case "isClosed" -> {
+                    if (closed.get()) {
+                        return true;
+                    }
+                }
+                case "close" -> {
+                    try {
+                        target.close();
+                    } finally {
+                        if (closed.compareAndSet(false, true)) {
+                            held.decrementAndGet();
+                            budget.release(1);
+                        }
+                    }
+                    return null;
+                }
+                default -> {
+                }
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
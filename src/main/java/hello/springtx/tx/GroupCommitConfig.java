@@ -0,0 +1,28 @@
+package hello.springtx.tx;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 그룹 커밋 (springtx.tx.group-commit.enabled=true)
+ * 커밋(fsync) 지연시간이 처리량을 결정하는 작은 단건 트랜잭션을 모아서 한 번에 커밋한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.tx.group-commit.enabled", havingValue = "true")
+public class GroupCommitConfig {
+
+    @Bean
+    public GroupCommitExecutor groupCommitExecutor(PlatformTransactionManager txManager,
+                                                   @Value("${springtx.tx.group-commit.capacity:10000}") int capacity,
+                                                   @Value("${springtx.tx.group-commit.max-batch:100}") int maxBatch,
+                                                   @Value("${springtx.tx.group-commit.window-ms:2}") long windowMillis,
+                                                   @Value("${springtx.tx.group-commit.offer-timeout-ms:50}") long offerTimeoutMillis) {
+        TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+        txTemplate.setName("GroupCommitExecutor");
+        return new GroupCommitExecutor(txTemplate, capacity, maxBatch, windowMillis, offerTimeoutMillis);
+    }
+}
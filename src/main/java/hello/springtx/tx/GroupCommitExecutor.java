@@ -0,0 +1,242 @@
+package hello.springtx.tx;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 그룹 커밋 : 짧은 시간(window) 안에 들어온 작업(unit)을 최대 max-batch 개까지 모아 하나의 물리 트랜잭션에서 실행하고 한 번만 커밋한다.
+ * (springtx.tx.group-commit.enabled=true)
+ *
+ * - unit 마다 savepoint 를 만든다. 런타임 예외는 savepoint 까지만 롤백하고, 체크 예외는 변경을 유지한다. (@Transactional 과 같은 규칙)
+ * - unit 안에서 참여한(REQUIRED) 트랜잭션이 실패하면 JPA 트랜잭션 전체가 rollback-only 가 되어 savepoint 로 되돌릴 수 없다.
+ *   unit 이 그 예외를 잡고 정상 반환해도 마찬가지이므로 unit 을 실행할 때마다 rollback-only 여부를 확인한다.
+ *   rollback-only 로 만든 unit 은 실패 처리하고, 그룹을 롤백한 뒤 나머지를 새 트랜잭션에서 다시 실행한다.
+ *   그래서 unit 은 다시 실행될 수 있어야 한다. (엔티티는 unit 안에서 만든다)
+ * - 각 unit 의 future 는 커밋이 끝난 뒤에 완료한다. 커밋이 실패하면 그룹의 모든 future 가 그 예외로 실패한다.
+ * - 트랜잭션 안에서는 submit 할 수 없다. unit 은 커밋 스레드의 다른 트랜잭션에서 실행되므로,
+ *   호출한 트랜잭션이 잡은 행 잠금을 unit 이 기다리고 호출 스레드는 future 를 기다리는 교착이 생긴다.
+ * - 큐가 가득 차거나 종료된 뒤에 들어온 unit 은 호출 스레드에서 단독으로(REQUIRES_NEW) 실행한다.
+ */
+@Slf4j
+public class GroupCommitExecutor {
+
+    private static final DefaultTransactionAttribute ROLLBACK_RULES = new DefaultTransactionAttribute();
+
+    private final TransactionTemplate txTemplate;
+    private final TransactionTemplate aloneTemplate; // 호출 스레드에서 단독 실행 (큐가 가득 찼거나 종료된 뒤)
+    private final BlockingQueue<Unit<?>> queue;
+    private final int maxBatch;
+    private final long windowNanos;
+    private final long offerTimeoutMillis;
+
+    private final LongAdder groups = new LongAdder();
+    private final LongAdder units = new LongAdder();
+    private volatile boolean running;
+    private Thread worker;
+
+    public GroupCommitExecutor(TransactionTemplate txTemplate, int capacity, int maxBatch, long windowMillis,
+                               long offerTimeoutMillis) {
+        this.txTemplate = txTemplate;
+        this.aloneTemplate = new TransactionTemplate(txTemplate.getTransactionManager(), txTemplate);
+        this.aloneTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::commitLoop, "group-commit");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // 큐에 남은 unit 을 모두 커밋한 뒤 종료한다
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(30_000);
+        if (worker.isAlive()) {
+            log.warn("group commit 스레드가 종료되지 않았습니다. 남은 unit={}", queue.size());
+            return;
+        }
+        // 커밋 스레드가 끝난 뒤에 들어온 unit : 기다리는 호출자가 멈추지 않도록 실패로 완료한다
+        Unit<?> unit;
+        while ((unit = queue.poll()) != null) {
+            unit.future.completeExceptionally(new IllegalStateException("group commit 이 종료되었습니다."));
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalTransactionStateException(
+                    "트랜잭션 안에서는 group commit 에 submit 할 수 없습니다. unit 은 커밋 스레드의 다른 트랜잭션에서 실행됩니다.");
+        }
+        Unit<T> unit = new Unit<>(work);
+        if (!running) {
+            commit(List.of(unit), aloneTemplate);
+            return unit.future;
+        }
+        try {
+            if (!queue.offer(unit, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("group commit 큐가 가득 차서 호출 스레드에서 실행합니다.");
+                commit(List.of(unit), aloneTemplate);
+            } else if (!running && queue.remove(unit)) {
+                // 넣는 사이에 stop() 되었다면 커밋 스레드가 이미 끝났을 수 있다
+                commit(List.of(unit), aloneTemplate);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unit.future.completeExceptionally(e);
+        }
+        return unit.future;
+    }
+
+    // 지금까지 커밋한 그룹 수, unit 수 (unitCount / groupCount = 평균 그룹 크기)
+    public long groupCount() {
+        return groups.sum();
+    }
+
+    public long unitCount() {
+        return units.sum();
+    }
+
+    private void commitLoop() {
+        List<Unit<?>> group = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(group);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (!group.isEmpty()) {
+                commit(group, txTemplate);
+                group.clear();
+            }
+        }
+    }
+
+    // 첫 unit 이 들어온 뒤 window 동안, 또는 max-batch 개가 될 때까지 모은다
+    private void collect(List<Unit<?>> group) throws InterruptedException {
+        Unit<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        group.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (group.size() < maxBatch) {
+            long remaining = deadline - System.nanoTime();
+            Unit<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+        }
+    }
+
+    private void commit(List<Unit<?>> group, TransactionTemplate template) {
+        List<Unit<?>> pending = group;
+        while (!pending.isEmpty()) {
+            pending = tryCommit(pending, template);
+        }
+    }
+
+    /**
+     * @return 그룹이 rollback-only 가 되어 다시 실행해야 하는 unit (없으면 빈 목록)
+     */
+    private List<Unit<?>> tryCommit(List<Unit<?>> group, TransactionTemplate template) {
+        List<Unit<?>> retry = new ArrayList<>();
+        try {
+            template.executeWithoutResult(status -> {
+                for (Unit<?> unit : group) {
+                    unit.run(status);
+                    // 예외를 던지지 않았어도 참여한 트랜잭션의 실패를 삼켰다면 rollback-only 다
+                    if (status.isRollbackOnly()) {
+                        unit.markRolledBack();
+                        status.setRollbackOnly();
+                        group.stream().filter(other -> other != unit).forEach(retry::add);
+                        return;
+                    }
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            log.warn("group commit 실패 size={}", group.size(), e);
+            group.forEach(unit -> unit.future.completeExceptionally(e));
+            return List.of();
+        }
+        for (Unit<?> unit : group) {
+            if (!retry.contains(unit)) {
+                unit.complete();
+            }
+        }
+        if (retry.isEmpty()) {
+            groups.increment();
+            units.add(group.size());
+        }
+        return retry;
+    }
+
+    private static final class Unit<T> {
+
+        private final Callable<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Throwable failure;
+
+        private Unit(Callable<T> work) {
+            this.work = work;
+        }
+
+        private void run(TransactionStatus status) {
+            result = null;
+            failure = null;
+            Object savepoint = status.createSavepoint();
+            try {
+                result = work.call();
+                status.releaseSavepoint(savepoint);
+            } catch (Throwable ex) {
+                failure = ex;
+                if (ROLLBACK_RULES.rollbackOn(ex)) {
+                    status.rollbackToSavepoint(savepoint);
+                } else {
+                    status.releaseSavepoint(savepoint); // 체크 예외는 커밋
+                }
+            }
+        }
+
+        // 이 unit 이 트랜잭션을 rollback-only 로 만들었다 (변경은 그룹과 함께 롤백된다)
+        private void markRolledBack() {
+            if (failure == null) {
+                failure = new UnexpectedRollbackException(
+                        "unit 이 참여한 트랜잭션이 실패해서 group commit 트랜잭션이 rollback-only 가 되었습니다.");
+            }
+        }
+
+        private void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package hello.springtx.tx;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+/**
+ * JpaTransactionManager 에서 NESTED (JDBC savepoint) 를 사용할 수 있게 SavepointHibernateJpaDialect 를 설정한다.
+ * JpaTransactionManager 는 EntityManagerFactory 의 JpaDialect 를 가져가므로 factory bean 초기화 전에 바꾼다.
+ */
+@Configuration
+public class JpaSavepointConfig {
+
+    @Bean
+    public static BeanPostProcessor savepointJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean factoryBean) {
+                    factoryBean.setJpaDialect(new SavepointHibernateJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+}
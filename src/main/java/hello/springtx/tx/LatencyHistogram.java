@@ -0,0 +1,50 @@
+package hello.springtx.tx;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 락 없이 기록하는 지연시간 히스토그램
+ * i 번째 구간은 [2^(i-1), 2^i) 마이크로초 (0 번은 1us 미만), 마지막 구간은 그 이상 전부
+ */
+public class LatencyHistogram {
+
+    static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        long micros = nanos / 1_000;
+        int index = micros == 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+        counts.incrementAndGet(Math.min(index, BUCKETS - 1));
+    }
+
+    public long[] snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * 구간 상한값 기준 백분위 (예: 0.99 → p99), 기록이 없으면 0
+     */
+    public static long percentileMicros(long[] buckets, double percentile) {
+        long total = 0;
+        for (long count : buckets) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (buckets.length - 1);
+    }
+}
@@ -0,0 +1,46 @@
+package hello.springtx.tx;
+
+import org.springframework.transaction.interceptor.DelegatingTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 트랜잭션 속성 + 예외 클래스별 롤백 여부 캐시
+ *
+ * - rollbackOn 결과는 예외 클래스에만 의존하므로(rollbackFor / noRollbackFor 규칙, RuntimeException / Error)
+ *   처음 발생한 예외 클래스에서 한 번만 규칙을 평가하고 이후에는 map 조회만 한다.
+ * - getName() 은 미리 만든 메서드 식별자를 반환한다.
+ *   이름이 없으면 TransactionAspectSupport 가 호출마다 식별자 문자열과 DelegatingTransactionAttribute 를 새로 만든다.
+ */
+class MemoizedTransactionAttribute extends DelegatingTransactionAttribute {
+
+    private final TransactionAttribute target;
+    private final String name;
+    private final ConcurrentHashMap<Class<?>, Boolean> rollbackDecisions = new ConcurrentHashMap<>();
+
+    MemoizedTransactionAttribute(TransactionAttribute target, String name) {
+        super(target);
+        this.target = target;
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean rollbackOn(Throwable ex) {
+        Boolean decision = rollbackDecisions.get(ex.getClass());
+        if (decision == null) {
+            decision = target.rollbackOn(ex);
+            rollbackDecisions.putIfAbsent(ex.getClass(), decision);
+        }
+        return decision;
+    }
+
+    int cachedDecisions() {
+        return rollbackDecisions.size();
+    }
+}
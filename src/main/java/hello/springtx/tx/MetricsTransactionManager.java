@@ -0,0 +1,131 @@
+package hello.springtx.tx;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * 트랜잭션 매니저를 감싸서 트랜잭션 이름별 begin/commit/rollback, rollback-only 마킹,
+ * REQUIRES_NEW 보류 횟수, 소요 시간을 TransactionMetricsRegistry 에 기록한다.
+ */
+public class MetricsTransactionManager implements PlatformTransactionManager {
+
+    private final PlatformTransactionManager delegate;
+    private final TransactionMetricsRegistry registry;
+
+    // 스레드별로 진행 중인 트랜잭션 (getTransaction / commit, rollback 은 항상 같은 스레드에서 짝을 이룬다)
+    private final ThreadLocal<ArrayDeque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public MetricsTransactionManager(PlatformTransactionManager delegate, TransactionMetricsRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+    }
+
+    public PlatformTransactionManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        TransactionDefinition def = definition != null ? definition : TransactionDefinition.withDefaults();
+        boolean existing = TransactionSynchronizationManager.isActualTransactionActive();
+        long start = System.nanoTime();
+
+        TransactionStatus status = delegate.getTransaction(definition);
+
+        TransactionStats stats = registry.stats(def.getName());
+        stats.getBegin().increment();
+        if (status.isNewTransaction()) {
+            stats.getNewTransaction().increment();
+        }
+        int propagation = def.getPropagationBehavior();
+        if (existing && (propagation == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                || propagation == TransactionDefinition.PROPAGATION_NOT_SUPPORTED)) {
+            stats.getSuspend().increment();
+        }
+        frames.get().push(new Frame(status, stats, start));
+        return status;
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        Frame frame = pop(status);
+        boolean rollbackOnly = status.isRollbackOnly();
+        try {
+            delegate.commit(status);
+            if (frame != null) {
+                if (rollbackOnly) {
+                    frame.stats.getRollbackOnly().increment();
+                    frame.stats.getRollback().increment();
+                } else {
+                    frame.stats.getCommit().increment();
+                }
+            }
+        } catch (UnexpectedRollbackException e) {
+            if (frame != null) {
+                frame.stats.getUnexpectedRollback().increment();
+                frame.stats.getRollback().increment();
+            }
+            throw e;
+        } catch (RuntimeException | Error e) {
+            // 커밋 시점 flush 의 제약 조건 위반, TransactionSystemException 등 : delegate 가 이미 롤백했다
+            if (frame != null) {
+                frame.stats.getCommitFailure().increment();
+                frame.stats.getRollback().increment();
+            }
+            throw e;
+        } finally {
+            record(frame);
+        }
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        Frame frame = pop(status);
+        // NESTED 는 savepoint 까지만 롤백하고 rollback-only 로 마킹하지 않는다 (savepoint 는 롤백하면서 지워진다)
+        boolean savepoint = status.hasSavepoint();
+        try {
+            delegate.rollback(status);
+        } finally {
+            if (frame != null) {
+                frame.stats.getRollback().increment();
+                if (!status.isNewTransaction() && status.hasTransaction() && !savepoint) {
+                    // 참여 중인 내부 트랜잭션 롤백 : 물리 트랜잭션 전체가 rollback-only 로 마킹된다
+                    frame.stats.getRollbackOnly().increment();
+                }
+            }
+            record(frame);
+        }
+    }
+
+    private Frame pop(TransactionStatus status) {
+        ArrayDeque<Frame> stack = frames.get();
+        Frame top = stack.peek();
+        if (top != null && top.status == status) {
+            return stack.pop();
+        }
+        for (Iterator<Frame> it = stack.iterator(); it.hasNext(); ) {
+            Frame frame = it.next();
+            if (frame.status == status) {
+                it.remove();
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private void record(Frame frame) {
+        if (frame != null) {
+            frame.stats.getDuration().record(System.nanoTime() - frame.startNanos);
+        }
+    }
+
+    private record Frame(TransactionStatus status, TransactionStats stats, long startNanos) {
+    }
+}
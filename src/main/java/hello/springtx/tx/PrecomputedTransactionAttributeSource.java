@@ -0,0 +1,109 @@
+package hello.springtx.tx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.MethodClassKey;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 트랜잭션 속성 조회 캐시 (springtx.tx.attribute-cache.enabled=true)
+ *
+ * - 컨텍스트 시작이 끝나면(precompute) 모든 빈의 트랜잭션 메서드 속성을 미리 계산해서 불변 map 에 넣는다.
+ *   클래스 레벨 readOnly 와 메서드 레벨 설정의 병합(TxLevelTest), rollbackFor(RollbackTest) 도 이때 끝난다.
+ * - 호출마다 (메서드, 대상 클래스) 로 map 을 한 번 조회한다. 테이블에 없는 조합(JDK 프록시의 인터페이스 메서드 등)은
+ *   원래 source 에서 계산한 뒤 별도 map 에 보관한다.
+ * - 롤백 규칙 평가 결과는 MemoizedTransactionAttribute 가 예외 클래스별로 보관한다.
+ */
+@Slf4j
+public class PrecomputedTransactionAttributeSource implements TransactionAttributeSource {
+
+    private static final TransactionAttribute NO_ATTRIBUTE = new DefaultTransactionAttribute();
+
+    private final TransactionAttributeSource delegate;
+    private volatile Map<MethodClassKey, TransactionAttribute> precomputed = Map.of();
+    private final ConcurrentHashMap<MethodClassKey, TransactionAttribute> resolvedLater = new ConcurrentHashMap<>();
+
+    public PrecomputedTransactionAttributeSource(TransactionAttributeSource delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean isCandidateClass(Class<?> targetClass) {
+        return delegate.isCandidateClass(targetClass);
+    }
+
+    @Override
+    public TransactionAttribute getTransactionAttribute(Method method, Class<?> targetClass) {
+        MethodClassKey key = new MethodClassKey(method, targetClass);
+        TransactionAttribute attribute = precomputed.get(key);
+        if (attribute == null) {
+            attribute = resolvedLater.get(key);
+            if (attribute == null) {
+                attribute = resolve(method, targetClass);
+                resolvedLater.putIfAbsent(key, attribute);
+            }
+        }
+        return attribute == NO_ATTRIBUTE ? null : attribute;
+    }
+
+    /**
+     * 등록된 모든 빈의 메서드 트랜잭션 속성을 미리 계산한다 (TransactionAttributeCacheConfig 에서 시작 시 호출)
+     */
+    public void precompute(ConfigurableListableBeanFactory beanFactory) {
+        Map<MethodClassKey, TransactionAttribute> table = new HashMap<>(precomputed);
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> beanType = beanFactory.getType(beanName, false);
+            if (beanType == null || Proxy.isProxyClass(beanType)) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(beanType);
+            if (!delegate.isCandidateClass(userClass)) {
+                continue;
+            }
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(userClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+                if (Modifier.isStatic(method.getModifiers()) || Modifier.isPrivate(method.getModifiers())) {
+                    continue;
+                }
+                TransactionAttribute attribute = resolve(method, userClass);
+                if (attribute != NO_ATTRIBUTE) {
+                    table.put(new MethodClassKey(method, userClass), attribute);
+                }
+            }
+        }
+        precomputed = Map.copyOf(table);
+        log.info("트랜잭션 속성 미리 계산 methods={}", precomputed.size());
+    }
+
+    public int size() {
+        return precomputed.size();
+    }
+
+    private TransactionAttribute resolve(Method method, Class<?> targetClass) {
+        TransactionAttribute attribute = delegate.getTransactionAttribute(method, targetClass);
+        if (attribute == null) {
+            return NO_ATTRIBUTE;
+        }
+        // 롤백 여부가 예외 클래스로만 결정되는 기본 속성만 감싼다
+        if (attribute.getClass() != RuleBasedTransactionAttribute.class && attribute.getClass() != DefaultTransactionAttribute.class) {
+            return attribute;
+        }
+        String name = attribute.getName();
+        if (name == null) {
+            String descriptor = ((DefaultTransactionAttribute) attribute).getDescriptor();
+            name = descriptor != null ? descriptor : ClassUtils.getQualifiedMethodName(method, targetClass);
+        }
+        return new MemoizedTransactionAttribute(attribute, name);
+    }
+}
@@ -0,0 +1,63 @@
+package hello.springtx.tx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.ResourceHolderSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 현재 스레드의 트랜잭션이 rollback-only 인지 확인하고, 이미 커밋될 수 없는 트랜잭션에서 하려던 작업을 막는다.
+ * (springtx.tx.rollback-only-guard.enabled=true)
+ *
+ * 참여한 내부 트랜잭션이 실패하면 트랜잭션 매니저가 바인딩된 리소스(ConnectionHolder 등)를 rollback-only 로 표시한다.
+ * 이후 실행하려던 SQL (RollbackOnlyStatementInspector) 과 트랜잭션 참여 (RollbackOnlyGuardTransactionManager) 를
+ * RollbackOnlyTransactionException 으로 바로 중단하고, 막은 횟수를 센다.
+ */
+@Slf4j
+public class RollbackOnlyGuard {
+
+    private final LongAdder blockedStatements = new LongAdder();
+    private final LongAdder blockedCalls = new LongAdder();
+
+    public static boolean isCurrentRollbackOnly() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof ResourceHolderSupport holder && holder.isRollbackOnly()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void checkStatement(String sql) {
+        if (isCurrentRollbackOnly()) {
+            blockedStatements.increment();
+            log.debug("rollback-only 트랜잭션의 SQL 실행을 중단합니다. sql={}", sql);
+            throw new RollbackOnlyTransactionException(
+                    "Transaction is marked as rollback-only; statement not executed: " + sql);
+        }
+    }
+
+    public void checkParticipation(String name) {
+        if (isCurrentRollbackOnly()) {
+            blockedCalls.increment();
+            log.debug("rollback-only 트랜잭션 참여를 중단합니다. name={}", name);
+            throw new RollbackOnlyTransactionException(
+                    "Transaction is marked as rollback-only; cannot participate: " + name);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(blockedStatements.sum(), blockedCalls.sum());
+    }
+
+    /**
+     * @param blockedStatements 실행하지 않은 SQL 수
+     * @param blockedCalls      실행하지 않은 트랜잭션 참여(@Transactional 호출 등) 수
+     */
+    public record Stats(long blockedStatements, long blockedCalls) {
+    }
+}
@@ -0,0 +1,41 @@
+package hello.springtx.tx;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * rollback-only 트랜잭션 조기 중단 (springtx.tx.rollback-only-guard.enabled=true)
+ * Hibernate SQL 은 StatementInspector 로, 트랜잭션 참여는 PlatformTransactionManager 를 감싸서 막는다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.tx.rollback-only-guard.enabled", havingValue = "true")
+public class RollbackOnlyGuardConfig {
+
+    @Bean
+    public RollbackOnlyGuard rollbackOnlyGuard() {
+        return new RollbackOnlyGuard();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer rollbackOnlyStatementInspectorCustomizer(RollbackOnlyGuard guard) {
+        return properties -> StatementInspectors.register(properties, new RollbackOnlyStatementInspector(guard));
+    }
+
+    @Bean
+    public static BeanPostProcessor rollbackOnlyGuardTransactionManagerPostProcessor(ObjectProvider<RollbackOnlyGuard> guard) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof PlatformTransactionManager txManager && !(bean instanceof RollbackOnlyGuardTransactionManager)) {
+                    return new RollbackOnlyGuardTransactionManager(txManager, guard.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package hello.springtx.tx;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+
+/**
+ * 트랜잭션 매니저를 감싸서, rollback-only 인 트랜잭션에 참여하려는 호출(REQUIRED, SUPPORTS, MANDATORY, NESTED)을 바로 중단한다.
+ * 새 트랜잭션을 여는 REQUIRES_NEW 와 트랜잭션 없이 실행하는 NOT_SUPPORTED, NEVER 는 그대로 진행한다.
+ */
+public class RollbackOnlyGuardTransactionManager implements PlatformTransactionManager {
+
+    private final PlatformTransactionManager delegate;
+    private final RollbackOnlyGuard guard;
+
+    public RollbackOnlyGuardTransactionManager(PlatformTransactionManager delegate, RollbackOnlyGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    public PlatformTransactionManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        TransactionDefinition def = definition != null ? definition : TransactionDefinition.withDefaults();
+        if (participates(def.getPropagationBehavior())) {
+            guard.checkParticipation(def.getName());
+        }
+        return delegate.getTransaction(definition);
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        delegate.commit(status);
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        delegate.rollback(status);
+    }
+
+    private static boolean participates(int propagation) {
+        return propagation == TransactionDefinition.PROPAGATION_REQUIRED
+                || propagation == TransactionDefinition.PROPAGATION_SUPPORTS
+                || propagation == TransactionDefinition.PROPAGATION_MANDATORY
+                || propagation == TransactionDefinition.PROPAGATION_NESTED;
+    }
+}
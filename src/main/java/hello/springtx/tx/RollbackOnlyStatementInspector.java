@@ -0,0 +1,21 @@
+package hello.springtx.tx;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * rollback-only 트랜잭션에서 Hibernate 가 SQL 을 실행하려고 하면 실행 전에 중단한다.
+ */
+public class RollbackOnlyStatementInspector implements StatementInspector {
+
+    private final RollbackOnlyGuard guard;
+
+    public RollbackOnlyStatementInspector(RollbackOnlyGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        guard.checkStatement(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,14 @@
+package hello.springtx.tx;
+
+import org.springframework.transaction.UnexpectedRollbackException;
+
+/**
+ * rollback-only 로 표시된 트랜잭션에서 SQL 이나 트랜잭션 참여를 시도했을 때 바로 던진다. (RollbackOnlyGuard)
+ * 커밋 시점의 UnexpectedRollbackException 을 앞당긴 것이므로 같은 타입으로 처리할 수 있다.
+ */
+public class RollbackOnlyTransactionException extends UnexpectedRollbackException {
+
+    public RollbackOnlyTransactionException(String msg) {
+        super(msg);
+    }
+}
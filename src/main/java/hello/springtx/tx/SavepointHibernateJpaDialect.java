@@ -0,0 +1,145 @@
+package hello.springtx.tx;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.FlushMode;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.SavepointManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JpaTransactionManager 에서 NESTED 전파를 사용할 수 있게 하는 HibernateJpaDialect
+ * (HibernateJpaDialect 는 SavepointManager 를 제공하지 않아서 NESTED 가 NestedTransactionNotSupportedException 으로 실패한다)
+ *
+ * 외부 트랜잭션의 커넥션에 JDBC savepoint 를 만든다. 커넥션을 추가로 사용하지 않는다.
+ * JDBC savepoint 는 DB 만 되돌리므로 영속성 컨텍스트를 함께 맞춘다.
+ * - savepoint 생성 : 외부에서 쌓인 변경을 먼저 flush 해서 savepoint 이전으로 보낸다.
+ * - savepoint 롤백 : flush 되지 않은 내부 변경(action queue) 을 버리고, savepoint 이후에 영속화된 엔티티를 detach 한다.
+ *   savepoint 이전부터 관리되던 엔티티를 내부에서 변경했다면 (flush 여부와 관계없이) DB 에서 다시 읽어서 객체와 스냅샷을 savepoint 시점으로 되돌린다.
+ *   내부에서 remove 한 엔티티는 detach 된다. (DB 에는 남아 있으므로 외부에서 다시 조회해야 한다)
+ */
+@Slf4j
+public class SavepointHibernateJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        return new SavepointTransactionData(entityManager.unwrap(SessionImplementor.class), transactionData);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        super.cleanupTransaction(transactionData instanceof SavepointTransactionData data ? data.delegate : transactionData);
+    }
+
+    private static final class SavepointTransactionData implements SavepointManager {
+
+        private final SessionImplementor session;
+        private final Object delegate;
+        private int savepointCounter;
+
+        private SavepointTransactionData(SessionImplementor session, Object delegate) {
+            this.session = session;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object createSavepoint() throws TransactionException {
+            if (session.getHibernateFlushMode() != FlushMode.MANUAL) {
+                session.flush();
+            }
+            String name = "SAVEPOINT_" + (++savepointCounter);
+            try {
+                Savepoint savepoint = session.doReturningWork(con -> con.setSavepoint(name));
+                return new EntitySavepoint(savepoint, loadedStates());
+            } catch (RuntimeException e) {
+                throw new CannotCreateTransactionException("Could not create JDBC savepoint", e);
+            }
+        }
+
+        @Override
+        public void rollbackToSavepoint(Object savepoint) throws TransactionException {
+            EntitySavepoint entitySavepoint = (EntitySavepoint) savepoint;
+            try {
+                session.doWork(con -> con.rollback(entitySavepoint.savepoint));
+            } catch (RuntimeException e) {
+                throw new TransactionSystemException("Could not roll back to JDBC savepoint", e);
+            }
+            // savepoint 생성 시 flush 했으므로 남은 action 은 모두 내부에서 만든 것이다
+            session.getActionQueue().clear();
+            List<Object> changed = new ArrayList<>();
+            for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+                Object entity = entry.getKey();
+                if (!entitySavepoint.loadedStates.containsKey(entity)) {
+                    session.evict(entity);
+                } else if (changedAfter(entity, entry.getValue(), entitySavepoint.loadedStates.get(entity))) {
+                    changed.add(entity);
+                }
+            }
+            for (Object entity : changed) {
+                EntityEntry entry = session.getPersistenceContextInternal().getEntry(entity);
+                if (entry == null) {
+                    continue; // 앞에서 evict 가 cascade 된 엔티티
+                }
+                if (entry.getStatus() == Status.MANAGED) {
+                    session.refresh(entity); // 객체 상태와 스냅샷을 DB(savepoint 시점) 값으로
+                } else {
+                    session.evict(entity); // flush 전에 remove 한 엔티티 : 되살릴 수 없으므로 detach
+                }
+            }
+        }
+
+        @Override
+        public void releaseSavepoint(Object savepoint) throws TransactionException {
+            try {
+                session.doWork(con -> con.releaseSavepoint(((EntitySavepoint) savepoint).savepoint));
+            } catch (RuntimeException e) {
+                // JDBC 트랜잭션 객체와 같이 release 실패는 무시한다 (일부 드라이버는 지원하지 않는다)
+                log.debug("Could not explicitly release JDBC savepoint", e);
+            }
+        }
+
+        // savepoint 시점에 관리되던 엔티티와 그때의 스냅샷(loadedState) 배열
+        private Map<Object, Object[]> loadedStates() {
+            Map<Object, Object[]> loadedStates = new IdentityHashMap<>();
+            for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+                loadedStates.put(entry.getKey(), entry.getValue().getLoadedState());
+            }
+            return loadedStates;
+        }
+
+        private boolean changedAfter(Object entity, EntityEntry entry, Object[] savedLoadedState) {
+            if (entry.getStatus() != Status.MANAGED) {
+                return true; // remove
+            }
+            if (entry.getLoadedState() != savedLoadedState) {
+                return true; // flush 된 update : 스냅샷이 새 배열로 바뀐다
+            }
+            if (savedLoadedState == null) {
+                return false; // 읽기 전용 엔티티는 스냅샷이 없다
+            }
+            // flush 되지 않은 변경
+            EntityPersister persister = entry.getPersister();
+            return persister.findDirty(persister.getValues(entity), savedLoadedState, entity, session) != null;
+        }
+    }
+
+    private record EntitySavepoint(Savepoint savepoint, Map<Object, Object[]> loadedStates) {
+    }
+}
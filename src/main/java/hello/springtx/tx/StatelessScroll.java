@@ -0,0 +1,52 @@
+package hello.springtx.tx;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * 전체 테이블을 한 건씩 읽는다 (대량 export 용)
+ *
+ * - StatelessSession : 영속성 컨텍스트(1차 캐시, 스냅샷) 가 없으므로 읽은 엔티티가 메모리에 쌓이지 않는다.
+ * - 현재 트랜잭션의 커넥션을 그대로 사용한다. readOnly 트랜잭션이면 읽기 전용 커넥션(라우팅 시 replica) 을 사용한다.
+ * - FORWARD_ONLY 커서 + fetchSize 로 드라이버가 fetchSize 건씩 가져온다.
+ * - MySQL 은 fetchSize 를 무시하고 결과 전체를 클라이언트에 받는다. URL 의 useCursorFetch=true 는 앱의 모든 문장을
+ *   서버 prepared statement 로 바꾸므로 쓰지 않고, 이 쿼리만 fetchSize=Integer.MIN_VALUE 로 한 행씩 스트리밍한다.
+ *   스트리밍 중에는 같은 커넥션으로 다른 SQL 을 실행할 수 없으므로 action 안에서 DB 를 조회하면 안 된다.
+ */
+public final class StatelessScroll {
+
+    private static final String MYSQL = "MySQL";
+
+    private StatelessScroll() {
+    }
+
+    public static <T> long forEach(EntityManager em, String jpql, Class<T> type, int fetchSize, Consumer<? super T> action) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("트랜잭션 안에서 호출해야 합니다.");
+        }
+        Session session = em.unwrap(Session.class);
+        SessionFactory sessionFactory = session.getSessionFactory();
+        return session.doReturningWork(connection -> {
+            int rowFetchSize = MYSQL.equals(connection.getMetaData().getDatabaseProductName()) ? Integer.MIN_VALUE : fetchSize;
+            try (StatelessSession stateless = sessionFactory.withStatelessOptions().connection(connection).openStatelessSession();
+                 ScrollableResults<T> results = stateless.createQuery(jpql, type)
+                         .setFetchSize(rowFetchSize)
+                         .setReadOnly(true)
+                         .scroll(ScrollMode.FORWARD_ONLY)) {
+                long count = 0;
+                while (results.next()) {
+                    action.accept(results.get());
+                    count++;
+                }
+                return count;
+            }
+        });
+    }
+}
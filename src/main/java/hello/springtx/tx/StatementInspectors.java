@@ -0,0 +1,23 @@
+package hello.springtx.tx;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Map;
+
+/**
+ * hibernate.session_factory.statement_inspector 에는 하나만 설정할 수 있으므로,
+ * 이미 설정된 inspector 가 있으면 먼저 실행하고 이어서 실행하도록 묶는다.
+ */
+public final class StatementInspectors {
+
+    private StatementInspectors() {
+    }
+
+    public static void register(Map<String, Object> hibernateProperties, StatementInspector inspector) {
+        hibernateProperties.merge(AvailableSettings.STATEMENT_INSPECTOR, inspector, (existing, next) -> {
+            StatementInspector first = (StatementInspector) existing;
+            return (StatementInspector) sql -> ((StatementInspector) next).inspect(first.inspect(sql));
+        });
+    }
+}
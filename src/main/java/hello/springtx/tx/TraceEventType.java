@@ -0,0 +1,9 @@
+package hello.springtx.tx;
+
+public enum TraceEventType {
+    BEGIN,
+    SUSPEND,
+    SQL,
+    COMMIT,
+    ROLLBACK
+}
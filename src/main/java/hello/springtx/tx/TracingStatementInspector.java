@@ -0,0 +1,21 @@
+package hello.springtx.tx;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate 가 실행하는 SQL 을 그대로 통과시키면서 TransactionTracer 에 기록한다.
+ */
+public class TracingStatementInspector implements StatementInspector {
+
+    private final TransactionTracer tracer;
+
+    public TracingStatementInspector(TransactionTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        tracer.sql(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,56 @@
+package hello.springtx.tx;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션 매니저를 감싸서 begin/commit/rollback 이벤트를 TransactionTracer 에 기록한다.
+ */
+public class TracingTransactionManager implements PlatformTransactionManager {
+
+    private final PlatformTransactionManager delegate;
+    private final TransactionTracer tracer;
+
+    public TracingTransactionManager(PlatformTransactionManager delegate, TransactionTracer tracer) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+    }
+
+    public PlatformTransactionManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        TransactionDefinition def = definition != null ? definition : TransactionDefinition.withDefaults();
+        boolean suspend = TransactionSynchronizationManager.isActualTransactionActive()
+                && def.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW;
+        TransactionStatus status = delegate.getTransaction(definition);
+        tracer.begin(def.getName(), suspend);
+        return status;
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        boolean rollbackOnly = status.isRollbackOnly();
+        boolean failed = true;
+        try {
+            delegate.commit(status);
+            failed = false;
+        } finally {
+            tracer.end(status.getTransactionName(), rollbackOnly || failed);
+        }
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        try {
+            delegate.rollback(status);
+        } finally {
+            tracer.end(status.getTransactionName(), true);
+        }
+    }
+}
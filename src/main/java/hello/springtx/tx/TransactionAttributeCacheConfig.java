@@ -0,0 +1,32 @@
+package hello.springtx.tx;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+/**
+ * 트랜잭션 속성 캐시 (springtx.tx.attribute-cache.enabled=true)
+ * 모든 싱글톤 생성이 끝나면 속성을 미리 계산하고, @Transactional 프록시의 TransactionInterceptor 가
+ * PrecomputedTransactionAttributeSource 를 사용하도록 교체한다.
+ * (TransactionAttributeSource 빈은 BeanPostProcessor 보다 먼저 만들어지므로 빈을 감싸지 않고 interceptor 에 설정한다)
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.tx.attribute-cache.enabled", havingValue = "true")
+public class TransactionAttributeCacheConfig {
+
+    @Bean
+    public static SmartInitializingSingleton transactionAttributePrecomputer(ConfigurableListableBeanFactory beanFactory) {
+        return () -> beanFactory.getBeanProvider(TransactionInterceptor.class).forEach(interceptor -> {
+            if (interceptor.getTransactionAttributeSource() instanceof PrecomputedTransactionAttributeSource) {
+                return;
+            }
+            PrecomputedTransactionAttributeSource source =
+                    new PrecomputedTransactionAttributeSource(interceptor.getTransactionAttributeSource());
+            source.precompute(beanFactory);
+            interceptor.setTransactionAttributeSource(source);
+        });
+    }
+}
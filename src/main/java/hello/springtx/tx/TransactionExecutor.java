@@ -0,0 +1,109 @@
+package hello.springtx.tx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.function.Supplier;
+
+/**
+ * 프록시(@Transactional) 없이 트랜잭션을 적용하는 실행기
+ *
+ * - 자기 자신의 메서드를 호출(self-invocation) 해도 트랜잭션이 적용된다. (InternalCallV1Test 참고)
+ * - TransactionDefinition 은 호출할 때마다 만들지 않고 상수로 미리 만들어 둔다. (definition(...) 참고)
+ *   이름은 지표/추적(MetricsTransactionManager, TracingTransactionManager) 에서 트랜잭션을 구분하는 데 사용한다.
+ * - 예외 규칙은 @Transactional 기본값과 같다 : 런타임 예외(Error 포함)는 롤백, 체크 예외는 커밋
+ * - 등록된 PlatformTransactionManager 빈(지표/추적/커넥션 예산 decorator 포함)을 그대로 사용한다.
+ */
+@Slf4j
+@Component
+public class TransactionExecutor {
+
+    private final PlatformTransactionManager txManager;
+
+    public TransactionExecutor(PlatformTransactionManager txManager) {
+        this.txManager = txManager;
+    }
+
+    /**
+     * 미리 만들어 두는 트랜잭션 정의 (static final 필드에 보관해서 재사용한다)
+     */
+    public static TransactionDefinition definition(String name, int propagation, boolean readOnly) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(propagation);
+        definition.setName(name);
+        definition.setReadOnly(readOnly);
+        return definition;
+    }
+
+    public static TransactionDefinition required(String name) {
+        return definition(name, TransactionDefinition.PROPAGATION_REQUIRED, false);
+    }
+
+    public static TransactionDefinition readOnly(String name) {
+        return definition(name, TransactionDefinition.PROPAGATION_REQUIRED, true);
+    }
+
+    public static TransactionDefinition requiresNew(String name) {
+        return definition(name, TransactionDefinition.PROPAGATION_REQUIRES_NEW, false);
+    }
+
+    public <T> T execute(TransactionDefinition definition, Supplier<T> action) {
+        TransactionStatus status = txManager.getTransaction(definition);
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error e) {
+            rollbackOnException(status, e);
+            throw e;
+        }
+        txManager.commit(status);
+        return result;
+    }
+
+    public void run(TransactionDefinition definition, Runnable action) {
+        TransactionStatus status = txManager.getTransaction(definition);
+        try {
+            action.run();
+        } catch (RuntimeException | Error e) {
+            rollbackOnException(status, e);
+            throw e;
+        }
+        txManager.commit(status);
+    }
+
+    /**
+     * 체크 예외를 던지는 작업 : 체크 예외는 커밋 후 그대로 던진다 (OrderService 의 NotEnoughMoneyException)
+     */
+    public <T, E extends Exception> T callChecked(TransactionDefinition definition, CheckedCallback<T, E> action) throws E {
+        TransactionStatus status = txManager.getTransaction(definition);
+        T result;
+        try {
+            result = action.call();
+        } catch (RuntimeException | Error e) {
+            rollbackOnException(status, e);
+            throw e;
+        } catch (Exception e) {
+            txManager.commit(status);
+            throw e;
+        }
+        txManager.commit(status);
+        return result;
+    }
+
+    private void rollbackOnException(TransactionStatus status, Throwable ex) {
+        try {
+            txManager.rollback(status);
+        } catch (RuntimeException | Error rollbackEx) {
+            log.error("롤백 중 예외가 발생해서 원래 예외를 덮어씁니다.", ex);
+            throw rollbackEx;
+        }
+    }
+
+    @FunctionalInterface
+    public interface CheckedCallback<T, E extends Exception> {
+        T call() throws E;
+    }
+}
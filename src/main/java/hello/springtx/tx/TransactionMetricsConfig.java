@@ -0,0 +1,35 @@
+package hello.springtx.tx;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 트랜잭션 지표 수집 (springtx.tx.metrics.enabled=true)
+ * 등록된 PlatformTransactionManager 를 MetricsTransactionManager 로 감싼다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.tx.metrics.enabled", havingValue = "true")
+public class TransactionMetricsConfig {
+
+    @Bean
+    public TransactionMetricsRegistry transactionMetricsRegistry() {
+        return new TransactionMetricsRegistry();
+    }
+
+    @Bean
+    public static BeanPostProcessor metricsTransactionManagerPostProcessor(ObjectProvider<TransactionMetricsRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof PlatformTransactionManager txManager && !(bean instanceof MetricsTransactionManager)) {
+                    return new MetricsTransactionManager(txManager, registry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package hello.springtx.tx;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 트랜잭션 지표 저장소 (프로세스 내부, 락 없음)
+ * snapshot() 으로 수집하거나 dump() 로 문자열을 얻는다. 로그 설정과는 무관하다.
+ */
+public class TransactionMetricsRegistry {
+
+    private static final String UNNAMED = "unnamed";
+
+    // key : TransactionDefinition.getName() 원본 (매 호출마다 문자열을 새로 만들지 않기 위해)
+    private final ConcurrentHashMap<String, TransactionStats> stats = new ConcurrentHashMap<>();
+
+    public TransactionStats stats(String transactionName) {
+        String key = transactionName == null ? UNNAMED : transactionName;
+        TransactionStats found = stats.get(key);
+        if (found != null) {
+            return found;
+        }
+        return stats.computeIfAbsent(key, k -> new TransactionStats(shortName(k)));
+    }
+
+    public Map<String, TransactionStats.Snapshot> snapshot() {
+        Map<String, TransactionStats.Snapshot> result = new TreeMap<>();
+        stats.values().forEach(s -> result.merge(s.getName(), s.snapshot(), (a, b) -> a));
+        return result;
+    }
+
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        snapshot().values().forEach(s -> sb.append(s).append('\n'));
+        return sb.toString();
+    }
+
+    // hello.springtx.order.OrderService.order -> OrderService.order
+    static String shortName(String transactionName) {
+        int method = transactionName.lastIndexOf('.');
+        if (method < 0) {
+            return transactionName;
+        }
+        int type = transactionName.lastIndexOf('.', method - 1);
+        return transactionName.substring(type + 1);
+    }
+}
@@ -0,0 +1,50 @@
+package hello.springtx.tx;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 트랜잭션 이름(예: OrderService.order) 별 누적 지표
+ */
+@Getter
+public class TransactionStats {
+
+    private final String name;
+
+    private final LongAdder begin = new LongAdder();          // 논리 트랜잭션 시작
+    private final LongAdder newTransaction = new LongAdder(); // 그 중 물리 트랜잭션 시작 (isNewTransaction)
+    private final LongAdder commit = new LongAdder();
+    private final LongAdder rollback = new LongAdder();
+    private final LongAdder rollbackOnly = new LongAdder();   // rollback-only 마킹 (내부 트랜잭션 롤백, setRollbackOnly)
+    private final LongAdder unexpectedRollback = new LongAdder(); // 커밋 요청이 UnexpectedRollbackException 으로 끝난 횟수
+    private final LongAdder commitFailure = new LongAdder();  // 그 밖의 예외로 커밋이 실패한 횟수 (delegate 가 롤백한다)
+    private final LongAdder suspend = new LongAdder();        // REQUIRES_NEW / NOT_SUPPORTED 로 외부 트랜잭션을 보류한 횟수
+    private final LatencyHistogram duration = new LatencyHistogram();
+
+    public TransactionStats(String name) {
+        this.name = name;
+    }
+
+    public Snapshot snapshot() {
+        long[] buckets = duration.snapshot();
+        return new Snapshot(name, begin.sum(), newTransaction.sum(), commit.sum(), rollback.sum(),
+                rollbackOnly.sum(), unexpectedRollback.sum(), commitFailure.sum(), suspend.sum(),
+                LatencyHistogram.percentileMicros(buckets, 0.5),
+                LatencyHistogram.percentileMicros(buckets, 0.99),
+                buckets);
+    }
+
+    public record Snapshot(String name, long begin, long newTransaction, long commit, long rollback,
+                           long rollbackOnly, long unexpectedRollback, long commitFailure, long suspend,
+                           long p50Micros, long p99Micros, long[] durationBuckets) {
+
+        @Override
+        public String toString() {
+            return name + " begin=" + begin + " new=" + newTransaction + " commit=" + commit + " rollback=" + rollback
+                    + " rollbackOnly=" + rollbackOnly + " unexpectedRollback=" + unexpectedRollback
+                    + " commitFailure=" + commitFailure
+                    + " suspend=" + suspend + " p50<=" + p50Micros + "us p99<=" + p99Micros + "us";
+        }
+    }
+}
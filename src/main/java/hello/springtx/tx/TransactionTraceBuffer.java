@@ -0,0 +1,93 @@
+package hello.springtx.tx;
+
+import java.util.Arrays;
+
+/**
+ * 스레드 하나가 사용하는 고정 크기 링 버퍼
+ * 이벤트 기록 시 객체를 새로 만들지 않는다. (배열은 생성 시점에 미리 할당)
+ * 버퍼가 넘치면 가장 오래된 이벤트부터 덮어쓴다.
+ */
+class TransactionTraceBuffer {
+
+    private final long[] nanos;
+    private final TraceEventType[] types;
+    private final String[] texts;
+    private final int mask;
+
+    private long written;      // 지금까지 기록한 이벤트 수 (덮어쓴 것 포함)
+    private int depth;         // 진행 중인 트랜잭션 중첩 수
+    private long startNanos;   // 가장 바깥 트랜잭션 시작 시각
+    private boolean rolledBack;
+
+    TransactionTraceBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1; // 2의 거듭제곱으로 올림
+        this.nanos = new long[size];
+        this.types = new TraceEventType[size];
+        this.texts = new String[size];
+        this.mask = size - 1;
+    }
+
+    void begin(String name, boolean suspend) {
+        long now = System.nanoTime();
+        if (depth++ == 0) {
+            startNanos = now;
+        }
+        if (suspend) {
+            add(now, TraceEventType.SUSPEND, name);
+        }
+        add(now, TraceEventType.BEGIN, name);
+    }
+
+    void sql(String sql) {
+        if (depth > 0) {
+            add(System.nanoTime(), TraceEventType.SQL, sql);
+        }
+    }
+
+    /**
+     * @return 가장 바깥 트랜잭션이 끝났으면 true
+     */
+    boolean end(String name, boolean rollback) {
+        add(System.nanoTime(), rollback ? TraceEventType.ROLLBACK : TraceEventType.COMMIT, name);
+        rolledBack |= rollback;
+        if (depth > 0) {
+            depth--;
+        }
+        return depth == 0;
+    }
+
+    boolean isRolledBack() {
+        return rolledBack;
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    void reset() {
+        written = 0;
+        rolledBack = false;
+        // 문자열 참조만 정리한다 (다음 트랜잭션까지 SQL 문자열을 붙잡지 않도록)
+        Arrays.fill(texts, null);
+    }
+
+    void formatTo(StringBuilder sb) {
+        long count = Math.min(written, nanos.length);
+        long first = written - count;
+        if (first > 0) {
+            sb.append("  ... ").append(first).append(" earlier events dropped\n");
+        }
+        for (long i = first; i < written; i++) {
+            int index = (int) (i & mask);
+            sb.append("  +").append((nanos[index] - startNanos) / 1_000).append("us ")
+                    .append(types[index]).append(' ').append(texts[index]).append('\n');
+        }
+    }
+
+    private void add(long now, TraceEventType type, String text) {
+        int index = (int) (written++ & mask);
+        nanos[index] = now;
+        types[index] = type;
+        texts[index] = text;
+    }
+}
@@ -0,0 +1,46 @@
+package hello.springtx.tx;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 트랜잭션/SQL 이벤트를 스레드별 링 버퍼에 기록하고,
+ * 가장 바깥 트랜잭션이 롤백되었거나 임계 시간을 넘었을 때만 문자열로 만들어 로그로 남긴다.
+ * 정상적으로 빨리 끝난 트랜잭션은 포맷팅과 로그 출력 비용이 없다.
+ */
+@Slf4j
+public class TransactionTracer {
+
+    private final ThreadLocal<TransactionTraceBuffer> buffers;
+    private final long thresholdNanos;
+
+    public TransactionTracer(int capacity, long thresholdMillis) {
+        this.buffers = ThreadLocal.withInitial(() -> new TransactionTraceBuffer(capacity));
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    public void begin(String name, boolean suspend) {
+        buffers.get().begin(name, suspend);
+    }
+
+    public void sql(String sql) {
+        buffers.get().sql(sql);
+    }
+
+    public void end(String name, boolean rollback) {
+        TransactionTraceBuffer buffer = buffers.get();
+        if (!buffer.end(name, rollback)) {
+            return;
+        }
+        long elapsed = buffer.elapsedNanos();
+        if (buffer.isRolledBack() || elapsed >= thresholdNanos) {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append("transaction trace rollback=").append(buffer.isRolledBack())
+                    .append(" elapsed=").append(elapsed / 1_000).append("us\n");
+            buffer.formatTo(sb);
+            log.warn(sb.toString());
+        }
+        buffer.reset();
+    }
+}
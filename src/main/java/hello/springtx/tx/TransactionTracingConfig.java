@@ -0,0 +1,43 @@
+package hello.springtx.tx;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 트랜잭션 트레이싱 (springtx.tx.tracing.enabled=true, tracing 프로파일 참고)
+ * TRACE/DEBUG 로그 대신 링 버퍼에 기록하고 롤백되거나 느린 트랜잭션만 출력한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.tx.tracing.enabled", havingValue = "true")
+public class TransactionTracingConfig {
+
+    @Bean
+    public TransactionTracer transactionTracer(@Value("${springtx.tx.tracing.buffer-size:256}") int bufferSize,
+                                               @Value("${springtx.tx.tracing.threshold-ms:100}") long thresholdMillis) {
+        return new TransactionTracer(bufferSize, thresholdMillis);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer tracingStatementInspectorCustomizer(TransactionTracer tracer) {
+        return properties -> StatementInspectors.register(properties, new TracingStatementInspector(tracer));
+    }
+
+    @Bean
+    public static BeanPostProcessor tracingTransactionManagerPostProcessor(ObjectProvider<TransactionTracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof PlatformTransactionManager txManager && !(bean instanceof TracingTransactionManager)) {
+                    return new TracingTransactionManager(txManager, tracer.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
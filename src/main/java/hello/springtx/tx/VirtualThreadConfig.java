@@ -0,0 +1,29 @@
+package hello.springtx.tx;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 가상 스레드 실행 모드 (springtx.virtual-threads.enabled=true)
+ * 커넥션 예산은 springtx.virtual-threads.max-connections, 없으면 Hikari maximum-pool-size 를 사용한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public ConnectionBudget connectionBudget(DataSource dataSource,
+                                             @Value("${springtx.virtual-threads.max-connections:0}") int maxConnections) {
+        return new ConnectionBudget(maxConnections > 0 ? maxConnections : ConnectionBudget.poolSize(dataSource));
+    }
+
+    @Bean
+    public VirtualThreadTransactionExecutor virtualThreadTransactionExecutor(ConnectionBudget connectionBudget,
+                                                                             @Value("${springtx.virtual-threads.acquire-timeout-ms:30000}") long acquireTimeoutMillis) {
+        return new VirtualThreadTransactionExecutor(connectionBudget, acquireTimeoutMillis);
+    }
+}
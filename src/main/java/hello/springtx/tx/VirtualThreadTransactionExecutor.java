@@ -0,0 +1,72 @@
+package hello.springtx.tx;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 트랜잭션 작업을 가상 스레드에서 실행한다. (springtx.virtual-threads.enabled=true)
+ *
+ * - 작업 하나는 처음부터 끝까지 하나의 가상 스레드에서 실행된다.
+ *   TransactionSynchronizationManager 는 ThreadLocal 기반이므로 트랜잭션 도중 다른 스레드로 넘기면 안 된다.
+ * - 동시에 실행되는 트랜잭션 수는 ConnectionBudget 으로 제한한다.
+ *   REQUIRES_NEW 처럼 커넥션을 2개 쓰는 작업은 connections=2 로 제출해서 한 번에 2개를 확보한다.
+ * - 대기는 풀(JDBC) 이 아니라 Semaphore 에서 일어나므로 캐리어 스레드가 pinning 된 채로 기다리지 않는다.
+ */
+@Slf4j
+public class VirtualThreadTransactionExecutor {
+
+    private final ConnectionBudget budget;
+    private final long acquireTimeoutMillis;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("tx-vt-", 0).factory());
+
+    public VirtualThreadTransactionExecutor(ConnectionBudget budget, long acquireTimeoutMillis) {
+        this.budget = budget;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public <T> CompletableFuture<T> submit(int connections, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                budget.acquire(connections, acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                budget.release(connections);
+            }
+        });
+        return future;
+    }
+
+    public CompletableFuture<Void> submit(int connections, Runnable task) {
+        return submit(connections, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public ConnectionBudget getBudget() {
+        return budget;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("가상 스레드 작업이 종료되지 않았습니다.");
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package hello.springtx.warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderService;
+import hello.springtx.propagation.LogRepository;
+import hello.springtx.propagation.Member;
+import hello.springtx.propagation.MemberRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 배포 직후 첫 요청의 지연을 줄이기 위한 warm-up (springtx.warmup.enabled=true)
+ *
+ * - @PostConstruct 는 트랜잭션 프록시가 준비되기 전에 호출되므로 ApplicationReadyEvent 에서 실행한다. (InitTxTest 참고)
+ *   ApplicationReadyEvent 리스너가 끝난 뒤에 readiness 가 ACCEPTING_TRAFFIC 으로 바뀌므로 warm-up 중에는 트래픽을 받지 않는다.
+ * - 커넥션 풀 : Hikari minimumIdle 만큼 커넥션을 동시에 빌렸다가 반납해서 미리 연결해 둔다.
+ * - 조회 : MemberRepository / LogRepository 의 find, findReadOnly 를 실행해서 JPQL 해석 결과를 Hibernate 쿼리 캐시에 올린다.
+ * - 쓰기 : OrderService.order, MemberRepository.save 를 rollback-only 트랜잭션 안에서 실행하고 flush 까지 한 뒤 롤백한다.
+ *   MemberService.join 은 로그를 REQUIRES_NEW(또는 비동기) 로 저장해서 롤백되지 않으므로 사용하지 않는다.
+ */
+@Slf4j
+public class TransactionWarmup {
+
+    static final String WARMUP_NAME = "warmup";
+
+    private final List<DataSource> dataSources;
+    private final OrderService orderService;
+    private final MemberRepository memberRepository;
+    private final LogRepository logRepository;
+    private final EntityManager em;
+    private final TransactionTemplate txTemplate;
+    private final int iterations;
+
+    private volatile boolean completed;
+
+    public TransactionWarmup(List<DataSource> dataSources, OrderService orderService, MemberRepository memberRepository,
+                             LogRepository logRepository, EntityManager em, TransactionTemplate txTemplate, int iterations) {
+        this.dataSources = dataSources;
+        this.orderService = orderService;
+        this.memberRepository = memberRepository;
+        this.logRepository = logRepository;
+        this.em = em;
+        this.txTemplate = txTemplate;
+        this.iterations = iterations;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        long start = System.nanoTime();
+        try {
+            warmUp();
+            log.info("warm-up 완료 elapsed={}ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            // warm-up 실패로 애플리케이션을 멈추지 않는다
+            log.warn("warm-up 실패", e);
+        }
+    }
+
+    public void warmUp() {
+        int connections = openPools();
+        for (int i = 0; i < iterations; i++) {
+            txTemplate.executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                runSyntheticTransaction();
+            });
+        }
+        completed = true;
+        log.info("warm-up connections={} iterations={}", connections, iterations);
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    private void runSyntheticTransaction() {
+        memberRepository.find(WARMUP_NAME);
+        memberRepository.findReadOnly(WARMUP_NAME);
+        logRepository.find(WARMUP_NAME);
+        logRepository.findReadOnly(WARMUP_NAME);
+
+        memberRepository.save(new Member(WARMUP_NAME));
+        Order order = new Order();
+        order.setUserName(WARMUP_NAME);
+        try {
+            orderService.order(order); // 정상 승인 흐름 (외부 트랜잭션에 참여)
+        } catch (NotEnoughMoneyException e) {
+            throw new IllegalStateException(e);
+        }
+        em.flush(); // insert 까지 실행한 뒤 롤백
+    }
+
+    // Hikari 풀마다 minimumIdle 개의 커넥션을 동시에 빌려서 미리 연결한다
+    private int openPools() {
+        Set<HikariDataSource> pools = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DataSource dataSource : dataSources) {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    pools.add(dataSource.unwrap(HikariDataSource.class));
+                }
+            } catch (SQLException e) {
+                log.warn("DataSource 확인 실패", e);
+            }
+        }
+        int opened = 0;
+        for (HikariDataSource pool : pools) {
+            opened += open(pool, Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize()));
+        }
+        return opened;
+    }
+
+    private int open(HikariDataSource pool, int count) {
+        List<Connection> connections = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                connections.add(pool.getConnection());
+            }
+        } catch (SQLException e) {
+            log.warn("커넥션 미리 연결 실패 pool={} opened={}", pool.getPoolName(), connections.size(), e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close(); // 풀에 반납
+                } catch (SQLException e) {
+                    log.warn("커넥션 반납 실패", e);
+                }
+            }
+        }
+        return connections.size();
+    }
+}
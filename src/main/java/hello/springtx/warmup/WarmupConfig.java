@@ -0,0 +1,32 @@
+package hello.springtx.warmup;
+
+import hello.springtx.order.OrderService;
+import hello.springtx.propagation.LogRepository;
+import hello.springtx.propagation.MemberRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * ApplicationReadyEvent warm-up (springtx.warmup.enabled=true)
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.warmup.enabled", havingValue = "true")
+public class WarmupConfig {
+
+    @Bean
+    public TransactionWarmup transactionWarmup(ObjectProvider<DataSource> dataSources, OrderService orderService,
+                                               MemberRepository memberRepository, LogRepository logRepository,
+                                               EntityManager em, PlatformTransactionManager txManager,
+                                               @Value("${springtx.warmup.iterations:3}") int iterations) {
+        return new TransactionWarmup(dataSources.orderedStream().toList(), orderService, memberRepository, logRepository,
+                em, new TransactionTemplate(txManager), iterations);
+    }
+}
@@ -0,0 +1,10 @@
+-- orders.pay_status : 한글 label(varchar) -> 한 글자 코드(char(1)) 마이그레이션 (MySQL)
+-- Flyway 도입 전(ddl-auto) 에 만들어진 DB 용 : 실행 후 baseline(version 1) 을 만들어 V1__init_schema 를 건너뛴다
+-- PayStatusConverter 는 마이그레이션 전 label 도 읽을 수 있으므로, 애플리케이션 배포 후 실행해도 된다.
+
+-- 1. label 을 코드로 변환 (pk 범위로 나눠서 실행하면 잠금 시간을 줄일 수 있다)
+update orders set pay_status = 'P' where pay_status = '대기';
+update orders set pay_status = 'C' where pay_status = '완료';
+
+-- 2. 컬럼 축소 (인덱스 idx_orders_pay_status 도 함께 작아진다)
+alter table orders modify pay_status char(1);
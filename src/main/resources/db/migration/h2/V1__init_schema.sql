@@ -0,0 +1,48 @@
+-- 초기 스키마 (H2, embedded 프로파일 / 테스트 / 벤치마크)
+-- 테이블, 인덱스는 db/migration/mysql 과 같게 유지한다
+
+create sequence member_seq start with 1 increment by 50;
+
+create table member (
+    id bigint not null,
+    user_name varchar(255),
+    primary key (id)
+);
+
+create index idx_member_user_name on member (user_name);
+
+create sequence log_seq start with 1 increment by 100;
+
+create table log (
+    id bigint not null,
+    message varchar(255),
+    primary key (id)
+);
+
+create index idx_log_message on log (message);
+
+-- pay_status : PayStatus 코드 한 글자 (P: 대기, C: 완료)
+create sequence orders_seq start with 1 increment by 100;
+
+create table orders (
+    id bigint not null,
+    user_name varchar(255),
+    pay_status char(1),
+    attempt_count integer not null,
+    next_attempt_at timestamp(6),
+    primary key (id)
+);
+
+create index idx_orders_pay_status on orders (pay_status, id);
+
+create sequence outbox_event_seq start with 1 increment by 100;
+
+create table outbox_event (
+    id bigint not null,
+    aggregate_type varchar(255),
+    aggregate_id bigint,
+    event_type varchar(255),
+    payload varchar(255),
+    created_at timestamp(6),
+    primary key (id)
+);
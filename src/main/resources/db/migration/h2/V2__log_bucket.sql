@@ -0,0 +1,7 @@
+-- log 에 생성 일자(bucket, yyyyMMdd) 를 추가한다 (db/migration/mysql/V2 참고)
+-- H2 는 파티션이 없으므로 LogRetentionJob 이 bucket 범위로 나눠서 delete 한다
+
+alter table log add column created_at timestamp(6);
+alter table log add column bucket integer not null default 0;
+
+create index idx_log_bucket on log (bucket);
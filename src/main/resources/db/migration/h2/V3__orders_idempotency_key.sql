@@ -0,0 +1,5 @@
+-- orders idempotency key (db/migration/mysql/V3 참고)
+
+alter table orders add column idempotency_key varchar(64);
+
+create unique index uk_orders_idempotency_key on orders (idempotency_key);
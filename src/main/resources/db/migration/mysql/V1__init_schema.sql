@@ -0,0 +1,65 @@
+-- 초기 스키마 (MySQL)
+-- MySQL 은 sequence 가 없으므로 Hibernate 와 같은 방식으로 테이블(next_val) 을 sequence 로 사용한다
+-- id 할당 크기(allocationSize) 는 엔티티의 @SequenceGenerator 참고 (member 50, log / orders / outbox_event 100)
+
+create table member (
+    id bigint not null,
+    user_name varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_member_user_name on member (user_name);
+
+create table member_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into member_seq values (1);
+
+create table log (
+    id bigint not null,
+    message varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_log_message on log (message);
+
+create table log_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into log_seq values (1);
+
+-- pay_status : PayStatus 코드 한 글자 (P: 대기, C: 완료)
+create table orders (
+    id bigint not null,
+    user_name varchar(255),
+    pay_status char(1),
+    attempt_count integer not null,
+    next_attempt_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_orders_pay_status on orders (pay_status, id);
+
+create table orders_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into orders_seq values (1);
+
+create table outbox_event (
+    id bigint not null,
+    aggregate_type varchar(255),
+    aggregate_id bigint,
+    event_type varchar(255),
+    payload varchar(255),
+    created_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table outbox_event_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into outbox_event_seq values (1);
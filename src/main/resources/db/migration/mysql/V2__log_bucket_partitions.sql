@@ -0,0 +1,15 @@
+-- log 를 생성 일자(bucket, yyyyMMdd) 기준 RANGE 파티션으로 나눈다
+-- 파티션 키는 PK 에 포함되어야 하므로 PK 를 (id, bucket) 으로 바꾼다
+-- 기존 로그는 bucket 0 (p_legacy) 에 남는다. 최근 조회 대상이 아니고, 필요 없으면 직접 drop partition p_legacy 한다
+-- 일자별 파티션(p20261018 ...) 은 LogRetentionJob 이 pmax 를 나눠서 미리 만들고, 보존 기간이 지나면 drop 한다
+
+alter table log
+    add column created_at datetime(6),
+    add column bucket int not null default 0;
+
+alter table log drop primary key, add primary key (id, bucket);
+
+alter table log partition by range (bucket) (
+    partition p_legacy values less than (1),
+    partition pmax values less than maxvalue
+);
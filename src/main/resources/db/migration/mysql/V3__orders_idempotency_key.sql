@@ -0,0 +1,6 @@
+-- 클라이언트 재시도로 같은 주문이 중복 저장되지 않도록 idempotency key 를 추가한다 (IdempotentOrderService)
+-- null 은 unique 검사 대상이 아니므로 키 없이 저장한 기존 주문, order() 호출은 그대로 동작한다
+
+alter table orders add column idempotency_key varchar(64);
+
+create unique index uk_orders_idempotency_key on orders (idempotency_key);
@@ -0,0 +1,111 @@
+package hello.springtx.datasource;
+
+import hello.springtx.propagation.Member;
+import hello.springtx.propagation.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@SpringBootTest(properties = {
+        "springtx.datasource.routing.enabled=true",
+        "springtx.datasource.primary.jdbc-url=jdbc:h2:mem:primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "springtx.datasource.primary.username=sa",
+        "springtx.datasource.replica.jdbc-url=jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "springtx.datasource.replica.username=sa"
+})
+class RoutingDataSourceTest {
+
+    @Autowired RoutingService routingService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired @Qualifier("replicaDataSource") DataSource replicaDataSource;
+
+    @BeforeEach
+    void replicaSchema() {
+        // migration 은 primary 에만 적용되므로 replica 에는 조회용 테이블만 만들어 둔다
+        new JdbcTemplate(replicaDataSource).execute(
+                "create table if not exists member (id bigint not null, user_name varchar(255), primary key (id))");
+    }
+
+    @Test
+    void readOnly_replica() {
+        String url = routingService.read();
+        log.info("read url={}", url);
+        assertThat(url).contains("replica");
+    }
+
+    @Test
+    void readWrite_primary() {
+        String url = routingService.write();
+        log.info("write url={}", url);
+        assertThat(url).contains("primary");
+    }
+
+    @Test
+    void findOnReplica() {
+        String userName = "routing_member";
+
+        routingService.save(userName);
+
+        assertThat(routingService.findOnReplica(userName)).isFalse(); // replica 에는 복제되지 않았다
+        assertThat(routingService.findOnPrimary(userName)).isTrue();
+    }
+
+    @TestConfiguration
+    static class RoutingTestConfig {
+
+        @Bean
+        RoutingService routingService(DataSource dataSource, MemberRepository memberRepository) {
+            return new RoutingService(new JdbcTemplate(dataSource), memberRepository);
+        }
+    }
+
+    @Slf4j
+    @RequiredArgsConstructor
+    @Transactional(readOnly = true)
+    static class RoutingService {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final MemberRepository memberRepository;
+
+        public String read() {
+            return currentUrl();
+        }
+
+        @Transactional(readOnly = false)
+        public String write() {
+            return currentUrl();
+        }
+
+        @Transactional(readOnly = false)
+        public void save(String userName) {
+            memberRepository.save(new Member(userName));
+        }
+
+        public boolean findOnReplica(String userName) {
+            return memberRepository.find(userName).isPresent();
+        }
+
+        @Transactional(readOnly = false)
+        public boolean findOnPrimary(String userName) {
+            return memberRepository.find(userName).isPresent();
+        }
+
+        private String currentUrl() {
+            return jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getURL());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package hello.springtx.export;
+
+import hello.springtx.propagation.LogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 수백만 건을 넣으므로 다른 테스트와 공유하는 메모리 DB 대신 별도 파일 DB 를 사용한다
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:file:./build/export-test/db;MODE=MySQL")
+class TableExporterTest {
+
+    static final int ORDER_ROWS = 2_000_000;
+
+    @Autowired TableExporter exporter;
+    @Autowired LogRepository logRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    void exportMillionsOfOrders() throws IOException {
+        // 파일 DB 는 build 디렉토리에 남으므로 이미 채워져 있으면 다시 넣지 않는다
+        Long existing = jdbcTemplate.queryForObject("select count(*) from orders", Long.class);
+        if (existing == null || existing != ORDER_ROWS) {
+            jdbcTemplate.execute("truncate table orders");
+            jdbcTemplate.update("insert into orders (id, user_name, pay_status, attempt_count)" +
+                    " select x, concat('user', x), case when mod(x, 10) = 0 then 'P' else 'C' end, 0 from system_range(1, ?)", ORDER_ROWS);
+        }
+
+        // 영속성 컨텍스트에 쌓으면 200만 건(엔티티 + 스냅샷) 이 테스트 JVM 힙(512MB) 을 넘는다
+        LineCountingOutputStream out = new LineCountingOutputStream(200);
+        long rows = exporter.exportOrders(out, ExportFormat.CSV);
+
+        assertThat(rows).isEqualTo(ORDER_ROWS);
+        assertThat(out.lines).isEqualTo(ORDER_ROWS + 1); // header
+        assertThat(out.head()).startsWith("id,user_name,pay_status,attempt_count,next_attempt_at\n" +
+                "1,user1,C,0,\n" +
+                "2,user2,C,0,\n");
+    }
+
+    @Test
+    void exportLogsAsNdjson() throws IOException {
+        jdbcTemplate.execute("truncate table log");
+        jdbcTemplate.update("insert into log (id, message, created_at, bucket) values" +
+                " (1, 'plain', timestamp '2026-01-31 10:15:30', 20260131)," +
+                " (2, 'quote \"a\", b', timestamp '2026-02-01 00:00:00.5', 20260201)," +
+                " (3, null, null, 0)"); // 파티션 도입 전 로그 (bucket 0)
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(exporter.exportLogs(out, ExportFormat.NDJSON)).isEqualTo(3);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"id\":1,\"message\":\"plain\",\"created_at\":\"2026-01-31T10:15:30\",\"bucket\":20260131}\n" +
+                "{\"id\":2,\"message\":\"quote \\\"a\\\", b\",\"created_at\":\"2026-02-01T00:00:00.500\",\"bucket\":20260201}\n" +
+                "{\"id\":3,\"message\":null,\"created_at\":null,\"bucket\":0}\n");
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exporter.exportLogs(csv, ExportFormat.CSV);
+        assertThat(csv.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,message,created_at,bucket\n" +
+                "1,plain,2026-01-31T10:15:30,20260131\n" +
+                "2,\"quote \"\"a\"\", b\",2026-02-01T00:00:00.500,20260201\n" +
+                "3,,,0\n");
+    }
+
+    @Test
+    void readOnlyTransaction() {
+        jdbcTemplate.execute("truncate table log");
+        jdbcTemplate.update("insert into log (id, message) values (1, 'read only')");
+
+        AtomicLong readOnly = new AtomicLong();
+        logRepository.streamAll(10, logMessage -> {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                readOnly.incrementAndGet();
+            }
+        });
+        assertThat(readOnly.get()).isEqualTo(1);
+    }
+
+    // 줄 수만 세고 앞부분만 보관한다
+    static class LineCountingOutputStream extends OutputStream {
+
+        final ByteArrayOutputStream head = new ByteArrayOutputStream();
+        final int headSize;
+        long lines;
+
+        LineCountingOutputStream(int headSize) {
+            this.headSize = headSize;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+            if (head.size() < headSize) {
+                head.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        String head() {
+            return head.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
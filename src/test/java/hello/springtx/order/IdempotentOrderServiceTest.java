@@ -0,0 +1,167 @@
+package hello.springtx.order;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+class IdempotentOrderServiceTest {
+
+    @Autowired IdempotentOrderService idempotentOrderService;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    void retryReturnsExistingOrder() {
+        String key = newKey();
+
+        OrderReceipt first = idempotentOrderService.submit(key, "정상 승인");
+        long lookups = idempotentOrderService.lookups();
+        OrderReceipt retry = idempotentOrderService.submit(key, "정상 승인");
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(first.payStatus()).isEqualTo(PayStatus.COMPLETED);
+        assertThat(retry).isEqualTo(new OrderReceipt(first.orderId(), PayStatus.COMPLETED, true));
+        assertThat(idempotentOrderService.lookups()).isEqualTo(lookups); // 캐시에서 응답
+        assertThat(count(key)).isEqualTo(1);
+    }
+
+    @Test
+    void notEnoughMoneyReturnsPending() {
+        String key = newKey();
+
+        OrderReceipt first = idempotentOrderService.submit(key, "잔고 부족"); // 대기 상태로 커밋
+        OrderReceipt retry = idempotentOrderService.submit(key, "잔고 부족");
+
+        assertThat(first.payStatus()).isEqualTo(PayStatus.PENDING);
+        assertThat(retry.orderId()).isEqualTo(first.orderId());
+        assertThat(retry.payStatus()).isEqualTo(PayStatus.PENDING);
+        assertThat(count(key)).isEqualTo(1);
+    }
+
+    @Test
+    void systemErrorIsNotRemembered() {
+        String key = newKey();
+
+        assertThatThrownBy(() -> idempotentOrderService.submit(key, "예외")).isInstanceOf(RuntimeException.class);
+        assertThat(count(key)).isZero();
+
+        // 아무것도 커밋되지 않았으므로 같은 키로 다시 처리한다
+        assertThat(idempotentOrderService.submit(key, "정상 승인").replayed()).isFalse();
+        assertThat(count(key)).isEqualTo(1);
+    }
+
+    @Test
+    void expiredCacheFallsBackToIndexLookup() {
+        IdempotentOrderService noCache = new IdempotentOrderService(orderService, orderRepository, 100, 0);
+        String key = newKey();
+
+        OrderReceipt first = noCache.submit(key, "정상 승인");
+        OrderReceipt retry = noCache.submit(key, "정상 승인");
+
+        assertThat(retry).isEqualTo(new OrderReceipt(first.orderId(), PayStatus.COMPLETED, true));
+        assertThat(noCache.lookups()).isEqualTo(2);
+        assertThat(noCache.cacheHits()).isZero();
+    }
+
+    @Test
+    void concurrentCommitOnOtherNode() {
+        String key = newKey();
+
+        // 다른 노드가 조회 직후에 먼저 커밋한 상황 : 조회는 비어 있고, 저장은 unique 인덱스 위반
+        OrderRepository staleRead = mock(OrderRepository.class, delegatesTo(orderRepository));
+        doReturn(Optional.empty())
+                .doAnswer(invocation -> orderRepository.findByIdempotencyKey(key))
+                .when(staleRead).findByIdempotencyKey(key);
+        IdempotentOrderService node = new IdempotentOrderService(orderService, staleRead, 100, 10_000);
+        idempotentOrderService.submit(key, "정상 승인");
+
+        OrderReceipt receipt = node.submit(key, "정상 승인");
+
+        assertThat(receipt.replayed()).isTrue();
+        assertThat(receipt.orderId()).isEqualTo(orderRepository.findByIdempotencyKey(key).get().getId());
+        assertThat(count(key)).isEqualTo(1);
+    }
+
+    @Test
+    void keyReusedWithDifferentRequest() {
+        String key = newKey();
+        OrderReceipt first = idempotentOrderService.submit(key, "정상 승인");
+
+        // 같은 키, 다른 내용 : 기존 주문을 돌려주지 않는다 (캐시 적중)
+        assertThatThrownBy(() -> idempotentOrderService.submit(key, "잔고 부족"))
+                .isInstanceOf(IdempotencyKeyConflictException.class);
+
+        // 캐시가 없어도 DB 에 저장된 주문과 비교한다
+        IdempotentOrderService noCache = new IdempotentOrderService(orderService, orderRepository, 100, 0);
+        assertThatThrownBy(() -> noCache.submit(key, "잔고 부족"))
+                .isInstanceOf(IdempotencyKeyConflictException.class);
+        assertThat(noCache.submit(key, "정상 승인").orderId()).isEqualTo(first.orderId());
+        assertThat(count(key)).isEqualTo(1);
+    }
+
+    @Test
+    void invalidKeyRejected() {
+        long lookups = idempotentOrderService.lookups();
+
+        assertThatThrownBy(() -> idempotentOrderService.submit(null, "정상 승인"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> idempotentOrderService.submit(" ", "정상 승인"))
+                .isInstanceOf(IllegalArgumentException.class);
+        String tooLong = "k".repeat(IdempotentOrderService.MAX_KEY_LENGTH + 1);
+        assertThatThrownBy(() -> idempotentOrderService.submit(tooLong, "정상 승인"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // DB 를 조회하거나 주문을 저장하기 전에 거절한다
+        assertThat(idempotentOrderService.lookups()).isEqualTo(lookups);
+        assertThat(count(tooLong.substring(0, IdempotentOrderService.MAX_KEY_LENGTH))).isZero();
+
+        String key = newKey();
+        String maxLength = key + "k".repeat(IdempotentOrderService.MAX_KEY_LENGTH - key.length());
+        assertThat(idempotentOrderService.submit(maxLength, "정상 승인").replayed()).isFalse();
+        assertThat(count(maxLength)).isEqualTo(1);
+    }
+
+    @Test
+    void retryStorm() throws Exception {
+        String key = newKey();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<OrderReceipt>> futures = IntStream.range(0, 32)
+                    .mapToObj(i -> executor.submit(() -> idempotentOrderService.submit(key, "정상 승인")))
+                    .toList();
+            long orderId = futures.get(0).get().orderId();
+            for (Future<OrderReceipt> future : futures) {
+                assertThat(future.get().orderId()).isEqualTo(orderId);
+            }
+            assertThat(futures.stream().filter(f -> !f.resultNow().replayed()).count()).isEqualTo(1);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(count(key)).isEqualTo(1);
+    }
+
+    private static String newKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    private int count(String key) {
+        return jdbcTemplate.queryForObject("select count(*) from orders where idempotency_key = ?", Integer.class, key);
+    }
+}
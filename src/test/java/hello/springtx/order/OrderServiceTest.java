@@ -1,11 +1,20 @@
 package hello.springtx.order;
 
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -15,6 +24,9 @@ class OrderServiceTest {
 
     @Autowired OrderService orderService;
     @Autowired OrderRepository orderRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager txManager;
 
     @Test
     void complete() throws NotEnoughMoneyException {
@@ -24,7 +36,7 @@ class OrderServiceTest {
         orderService.order(order);
 
         Order findOrder = orderRepository.findById(order.getId()).get();
-        assertThat(findOrder.getPayStatus()).isEqualTo("완료");
+        assertThat(findOrder.getPayStatus()).isEqualTo(PayStatus.COMPLETED);
     }
 
     @Test
@@ -51,6 +63,92 @@ class OrderServiceTest {
         }
 
         Order findOrder = orderRepository.findById(order.getId()).get();
-        assertThat(findOrder.getPayStatus()).isEqualTo("대기");
+        assertThat(findOrder.getPayStatus()).isEqualTo(PayStatus.PENDING);
     }
-}
\ No newline at end of file
+
+    @Test
+    void payStatusCode() throws NotEnoughMoneyException {
+        Order order = new Order();
+        order.setUserName("정상 승인");
+        orderService.order(order);
+
+        // 한 글자 코드로 저장
+        String stored = jdbcTemplate.queryForObject("select pay_status from orders where id = ?", String.class, order.getId());
+        assertThat(stored).isEqualTo("C");
+
+        // 마이그레이션 전 한글 label 도 읽을 수 있다
+        PayStatusConverter converter = new PayStatusConverter();
+        assertThat(converter.convertToEntityAttribute("대기")).isEqualTo(PayStatus.PENDING);
+        assertThat(converter.convertToEntityAttribute("완료")).isEqualTo(PayStatus.COMPLETED);
+    }
+
+    @Test
+    void streamAllOutsideTransaction() throws NotEnoughMoneyException {
+        Order order = new Order();
+        order.setUserName("정상 승인");
+        orderService.order(order);
+
+        // 트랜잭션 없이 호출해도 readOnly 트랜잭션 안에서 읽는다
+        AtomicLong readOnly = new AtomicLong();
+        long rows = orderRepository.streamAll(10, o -> {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                readOnly.incrementAndGet();
+            }
+        });
+        assertThat(rows).isPositive();
+        assertThat(readOnly.get()).isEqualTo(rows);
+    }
+
+    @Test
+    void orderAll() {
+        long before = orderRepository.count();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Order order = new Order();
+            order.setUserName(i % 10 == 0 ? "잔고 부족" : "정상 승인");
+            orders.add(order);
+        }
+
+        orderService.orderAll(orders);
+
+        assertThat(orderRepository.count()).isEqualTo(before + 1000);
+        assertThat(orderRepository.findById(orders.get(0).getId()).get().getPayStatus()).isEqualTo(PayStatus.PENDING);
+        assertThat(orderRepository.findById(orders.get(1).getId()).get().getPayStatus()).isEqualTo(PayStatus.COMPLETED);
+    }
+
+    @Test
+    void orderAll_boundedPersistenceContext() {
+        Long eventsBefore = jdbcTemplate.queryForObject("select count(*) from outbox_event", Long.class);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Order order = new Order();
+            order.setUserName("정상 승인");
+            orders.add(order);
+        }
+
+        // 외부 트랜잭션에 참여시켜 orderAll 직후의 영속성 컨텍스트를 확인한다
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            orderService.orderAll(orders);
+            assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero(); // 주문, 이벤트 모두 clear
+        });
+
+        Long eventsAfter = jdbcTemplate.queryForObject("select count(*) from outbox_event", Long.class);
+        assertThat(eventsAfter - eventsBefore).isEqualTo(500);
+    }
+
+    @Test
+    void orderAll_runtimeException() {
+        long before = orderRepository.count();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Order order = new Order();
+            order.setUserName(i == 99 ? "예외" : "정상 승인");
+            orders.add(order);
+        }
+
+        assertThatThrownBy(() -> orderService.orderAll(orders))
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(orderRepository.count()).isEqualTo(before); // 전체 롤백
+    }
+}
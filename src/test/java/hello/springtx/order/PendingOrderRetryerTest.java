@@ -0,0 +1,149 @@
+package hello.springtx.order;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "springtx.order.retry.enabled=true",
+        "springtx.order.retry.workers=2",
+        "springtx.order.retry.batch-size=5",
+        "springtx.order.retry.max-attempts=3",
+        "springtx.order.retry.base-backoff-ms=1",
+        "springtx.order.retry.max-backoff-ms=1",
+        "springtx.order.retry.interval-ms=600000" // 스케줄러 대신 직접 호출
+})
+class PendingOrderRetryerTest {
+
+    @Autowired PendingOrderRetryer retryer;
+    @Autowired OrderRepository orderRepository;
+    @Autowired SecondTryPaymentGateway gateway;
+
+    @TestConfiguration
+    static class RetryTestConfig {
+
+        @Bean
+        SecondTryPaymentGateway secondTryPaymentGateway() {
+            return new SecondTryPaymentGateway();
+        }
+    }
+
+    /**
+     * "재시도 성공" 고객은 두 번째 결제에서 성공, "결제 장애" 고객은 항상 런타임 예외, 나머지는 항상 잔고 부족
+     */
+    static class SecondTryPaymentGateway implements PaymentGateway {
+
+        final Map<Long, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+        @Override
+        public void pay(Order order) throws NotEnoughMoneyException {
+            int call = calls.computeIfAbsent(order.getId(), id -> new AtomicInteger()).incrementAndGet();
+            if (order.getUserName().equals("결제 장애")) {
+                throw new IllegalStateException("결제 게이트웨이 장애");
+            }
+            if (!order.getUserName().equals("재시도 성공") || call < 2) {
+                throw new NotEnoughMoneyException("잔고가 부족합니다.");
+            }
+        }
+    }
+
+    @Test
+    void retryUntilComplete() throws InterruptedException {
+        List<Long> ids = savePending("재시도 성공", 23);
+
+        retryer.retryPendingOrders(); // 1회차 : 모두 실패, 백오프
+        for (Long id : ids) {
+            Order order = orderRepository.findById(id).get();
+            assertThat(order.getPayStatus()).isEqualTo(PayStatus.PENDING);
+            assertThat(order.getAttemptCount()).isEqualTo(1);
+            assertThat(order.getNextAttemptAt()).isNotNull();
+        }
+
+        Thread.sleep(10);
+        retryer.retryPendingOrders(); // 2회차 : 성공
+
+        for (Long id : ids) {
+            Order order = orderRepository.findById(id).get();
+            assertThat(order.getPayStatus()).isEqualTo(PayStatus.COMPLETED);
+            assertThat(order.getAttemptCount()).isEqualTo(2);
+            // 워커 2개가 같은 주문을 중복 처리하지 않는다
+            assertThat(gateway.calls.get(id).get()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void stopAfterMaxAttempts() throws InterruptedException {
+        List<Long> ids = savePending("잔고 부족", 3);
+
+        for (int i = 0; i < 5; i++) {
+            retryer.retryPendingOrders();
+            Thread.sleep(10);
+        }
+
+        for (Long id : ids) {
+            Order order = orderRepository.findById(id).get();
+            assertThat(order.getPayStatus()).isEqualTo(PayStatus.PENDING);
+            assertThat(order.getAttemptCount()).isEqualTo(3);
+            assertThat(gateway.calls.get(id).get()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void gatewayFailureIsolated() throws InterruptedException {
+        // 같은 batch(5건) 에 런타임 예외를 던지는 주문이 섞여 있어도 나머지는 완료된다
+        Long poison = savePending("결제 장애", 1).get(0);
+        List<Long> healthy = savePending("재시도 성공", 4);
+
+        for (int i = 0; i < 5; i++) {
+            retryer.retryPendingOrders();
+            Thread.sleep(10);
+        }
+
+        for (Long id : healthy) {
+            assertThat(orderRepository.findById(id).get().getPayStatus()).isEqualTo(PayStatus.COMPLETED);
+        }
+        // 실패한 시도도 기록되므로 max-attempts 에서 멈춘다
+        Order failed = orderRepository.findById(poison).get();
+        assertThat(failed.getPayStatus()).isEqualTo(PayStatus.PENDING);
+        assertThat(failed.getAttemptCount()).isEqualTo(3);
+        assertThat(failed.getNextAttemptAt()).isNotNull();
+        assertThat(gateway.calls.get(poison).get()).isEqualTo(3);
+    }
+
+    @Test
+    void backoff() {
+        assertThat(retryer.backoffMillis(1)).isEqualTo(1L);
+        assertThat(retryer.backoffMillis(40)).isEqualTo(1L); // overflow 없이 최대값으로 제한
+    }
+
+    @Test
+    void invalidBackoff() {
+        // jitter 범위가 0 이 되는 설정은 재시도 루프가 아니라 생성 시점에 거부한다
+        assertThatThrownBy(() -> new PendingOrderRetryer(null, null, null, null, null, 1, 1, 1, 0, 1, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PendingOrderRetryer(null, null, null, null, null, 1, 1, 1, 100, 0, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Long> savePending(String userName, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setUserName(userName);
+            order.setPayStatus(PayStatus.PENDING);
+            ids.add(orderRepository.save(order).getId());
+        }
+        return ids;
+    }
+}
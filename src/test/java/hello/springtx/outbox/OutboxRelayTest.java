@@ -0,0 +1,112 @@
+package hello.springtx.outbox;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "springtx.outbox.relay.enabled=true",
+        "springtx.outbox.relay.batch-size=10",
+        "springtx.outbox.relay.poll-interval-ms=60000" // 커밋 신호로만 깨어나는지 확인하기 위해 길게 설정
+})
+class OutboxRelayTest {
+
+    @Autowired OrderService orderService;
+    @Autowired OutboxRelay outboxRelay;
+    @Autowired InMemoryOutboxSink sink;
+    @Autowired OutboxEventRepository outboxEventRepository;
+
+    @TestConfiguration
+    static class OutboxTestConfig {
+
+        @Bean
+        InMemoryOutboxSink inMemoryOutboxSink() {
+            return new InMemoryOutboxSink();
+        }
+    }
+
+    @BeforeEach
+    void clear() {
+        while (outboxRelay.relay() > 0) {
+        }
+        sink.clear();
+    }
+
+    @Test
+    void complete() throws Exception {
+        Order order = new Order();
+        order.setUserName("정상 승인");
+
+        orderService.order(order);
+
+        OutboxEvent event = awaitEvent(order.getId());
+        assertThat(event.getEventType()).isEqualTo("PAYMENT_COMPLETED");
+        assertThat(event.getPayload()).contains("\"payStatus\":\"완료\"");
+    }
+
+    @Test
+    void bizException_pending() throws Exception {
+        Order order = new Order();
+        order.setUserName("잔고 부족");
+
+        assertThatThrownBy(() -> orderService.order(order))
+                .isInstanceOf(NotEnoughMoneyException.class);
+
+        // 체크 예외는 커밋되므로 대기 이벤트가 전달된다
+        assertThat(awaitEvent(order.getId()).getEventType()).isEqualTo("PAYMENT_PENDING");
+    }
+
+    @Test
+    void runtimeException_noEvent() {
+        Order order = new Order();
+        order.setUserName("예외");
+
+        assertThatThrownBy(() -> orderService.order(order))
+                .isInstanceOf(RuntimeException.class);
+
+        outboxRelay.relay();
+        assertThat(sink.getEvents()).isEmpty(); // 주문과 함께 롤백
+    }
+
+    @Test
+    void orderedBatches() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Order order = new Order();
+            order.setUserName("정상 승인");
+            orders.add(order);
+        }
+        orderService.orderAll(orders);
+
+        while (outboxRelay.relay() > 0) {
+        }
+
+        List<Long> ids = sink.getEvents().stream().map(OutboxEvent::getId).toList();
+        assertThat(ids).hasSize(25).isSorted();
+        assertThat(outboxEventRepository.count()).isZero(); // 전달한 이벤트는 삭제
+    }
+
+    private OutboxEvent awaitEvent(Long orderId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            for (OutboxEvent event : sink.getEvents()) {
+                if (event.getAggregateId().equals(orderId)) {
+                    return event;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("outbox event 가 전달되지 않았습니다. orderId=" + orderId);
+    }
+}
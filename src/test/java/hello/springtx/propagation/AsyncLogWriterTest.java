@@ -0,0 +1,92 @@
+package hello.springtx.propagation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest(properties = "springtx.log.write-mode=async")
+class AsyncLogWriterTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired LogRepository logRepository;
+    @Autowired LogWriter logWriter;
+
+    @Test
+    void asyncMode() {
+        assertThat(logWriter).isInstanceOf(AsyncLogWriter.class);
+    }
+
+    @Test
+    void async_success() {
+        String userName = "async_success";
+
+        memberService.joinV1(userName);
+        assertTrue(((AsyncLogWriter) logWriter).flush(5, TimeUnit.SECONDS));
+
+        assertTrue(memberRepository.find(userName).isPresent());
+        assertTrue(logRepository.find(userName).isPresent()); // 백그라운드에서 일괄 저장
+    }
+
+    @Test
+    void async_logFail() {
+        String userName = "로그예외_async_logFail";
+
+        memberService.joinV1(userName); // 로그 저장 실패가 회원 트랜잭션으로 전파되지 않는다
+        assertTrue(((AsyncLogWriter) logWriter).flush(5, TimeUnit.SECONDS));
+
+        assertTrue(memberRepository.find(userName).isPresent()); // 회원 로직은 COMMIT
+        assertTrue(logRepository.find(userName).isEmpty()); // LOG 만 ROLLBACK
+    }
+
+    @Test
+    void async_batchWithFailure() {
+        for (int i = 0; i < 10; i++) {
+            logWriter.write(new Log("async_batch_" + i));
+        }
+        logWriter.write(new Log("로그예외_async_batch"));
+        assertTrue(((AsyncLogWriter) logWriter).flush(5, TimeUnit.SECONDS));
+
+        // 같은 batch 에 실패한 로그가 섞여 있어도 나머지 로그는 저장된다
+        for (int i = 0; i < 10; i++) {
+            assertTrue(logRepository.find("async_batch_" + i).isPresent());
+        }
+        assertTrue(logRepository.find("로그예외_async_batch").isEmpty());
+    }
+
+    @Test
+    void async_writeDuringStop() throws Exception {
+        AsyncLogWriter writer = new AsyncLogWriter(logRepository, 1000, 10, 50, 5000);
+        writer.start();
+
+        // stop() 과 겹쳐서 들어온 로그도 버려지지 않는다
+        List<CompletableFuture<Void>> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            writers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 50; i++) {
+                    writer.write(new Log("async_stop_" + thread + "_" + i));
+                }
+            }));
+        }
+        writer.stop();
+        CompletableFuture.allOf(writers.toArray(CompletableFuture[]::new)).join();
+
+        assertTrue(writer.flush(5, TimeUnit.SECONDS));
+        for (int t = 0; t < 4; t++) {
+            for (int i = 0; i < 50; i++) {
+                assertTrue(logRepository.find("async_stop_" + t + "_" + i).isPresent());
+            }
+        }
+    }
+}
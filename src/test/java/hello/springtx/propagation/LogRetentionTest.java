@@ -0,0 +1,89 @@
+package hello.springtx.propagation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "springtx.log.retention.enabled=true",
+        "springtx.log.retention.days=7",
+        "springtx.log.retention.delete-batch-size=2",
+        "springtx.log.retention.initial-delay-ms=3600000", // 스케줄러 대신 purge(today) 를 직접 호출
+        "springtx.log.lookup-days=7"})
+class LogRetentionTest {
+
+    @Autowired LogRepository logRepository;
+    @Autowired LogRetentionJob retentionJob;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bucket() {
+        LocalDate date = LocalDate.of(2026, 1, 31);
+        assertThat(Log.bucketOf(date)).isEqualTo(20260131);
+        assertThat(Log.dateOf(20260131)).isEqualTo(date);
+
+        Log logMessage = new Log("retention_bucket");
+        logRepository.save(logMessage);
+        assertThat(logMessage.getCreatedAt()).isNotNull();
+        assertThat(logMessage.getBucket()).isEqualTo(Log.bucketOf(logMessage.getCreatedAt().toLocalDate()));
+    }
+
+    @Test
+    void findPrunesToRecentBuckets() {
+        save("retention_old", LocalDateTime.now().minusDays(10));
+        save("retention_recent", LocalDateTime.now().minusDays(6));
+
+        assertThat(logRepository.find("retention_old")).isEmpty(); // lookup-days 밖
+        assertThat(logRepository.findReadOnly("retention_old")).isEmpty();
+        assertThat(logRepository.find("retention_old", LocalDate.now().minusDays(30))).isPresent(); // 범위를 직접 지정
+        assertThat(logRepository.find("retention_recent")).isPresent();
+        assertThat(logRepository.findReadOnly("retention_recent")).isPresent();
+    }
+
+    @Test
+    void purgeDeletesExpiredBuckets() {
+        assertThat(retentionJob.isPartitioned()).isFalse(); // H2 는 파티션 없이 delete
+
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 5; i++) {
+            save("retention_expired", today.minusDays(8 + i).atStartOfDay());
+        }
+        save("retention_kept", today.minusDays(6).atStartOfDay()); // today 포함 7일
+        jdbcTemplate.update("insert into log (id, message, bucket) values (-1, 'retention_legacy', 0)");
+
+        LogRetentionJob.Result result = retentionJob.purge(today);
+
+        assertThat(result.droppedPartitions()).isEmpty();
+        assertThat(count("retention_expired")).isZero(); // batch 2 건씩 나눠서 모두 삭제
+        assertThat(count("retention_kept")).isEqualTo(1);
+        assertThat(count("retention_legacy")).isEqualTo(1); // bucket 0 은 지우지 않는다
+        assertThat(retentionJob.purge(today).deletedRows()).isZero();
+    }
+
+    @Test
+    void invalidSettings() {
+        assertThatThrownBy(() -> new LogRetentionJob(jdbcTemplate, false, 7, 7, 0, 0, 1000))
+                .isInstanceOf(IllegalArgumentException.class); // delete ... limit 0 무한 반복
+        assertThatThrownBy(() -> new LogRetentionJob(jdbcTemplate, false, 7, -1, 100, 0, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new LogRetentionJob(jdbcTemplate, false, 7, 7, 100, 0, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void save(String message, LocalDateTime createdAt) {
+        Log logMessage = new Log(message);
+        logMessage.setCreatedAt(createdAt);
+        logRepository.save(logMessage);
+    }
+
+    private int count(String message) {
+        return jdbcTemplate.queryForObject("select count(*) from log where message = ?", Integer.class, message);
+    }
+}
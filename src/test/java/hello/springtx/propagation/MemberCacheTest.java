@@ -0,0 +1,111 @@
+package hello.springtx.propagation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "springtx.member.cache.enabled=true")
+class MemberCacheTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberCache memberCache;
+    @Autowired PlatformTransactionManager txManager;
+
+    @BeforeEach
+    void clear() {
+        memberCache.clear();
+    }
+
+    @Test
+    void invalidateOnCommit() {
+        MemberCache.Stats before = memberCache.stats();
+
+        assertThat(memberRepository.find("cache_commit")).isEmpty(); // miss, 없음을 캐시
+        assertThat(memberRepository.find("cache_commit")).isEmpty(); // hit
+
+        memberService.joinV1("cache_commit"); // 커밋 후 무효화
+
+        Optional<Member> found = memberRepository.find("cache_commit"); // miss
+        assertThat(found).isPresent();
+        Member cached = memberRepository.find("cache_commit").get(); // hit
+        assertThat(cached.getId()).isEqualTo(found.get().getId());
+        assertThat(cached).isNotSameAs(memberRepository.find("cache_commit").get()); // 꺼낼 때마다 새 객체
+
+        MemberCache.Stats after = memberCache.stats();
+        assertThat(after.hits() - before.hits()).isEqualTo(3);
+        assertThat(after.misses() - before.misses()).isEqualTo(2);
+        assertThat(after.invalidations() - before.invalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void keepOnRollback() {
+        assertThat(memberRepository.find("cache_rollback")).isEmpty();
+        long invalidations = memberCache.stats().invalidations();
+
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            memberRepository.save(new Member("cache_rollback"));
+            // 쓰기 트랜잭션 안에서는 캐시를 사용하지 않는다
+            assertThat(memberRepository.find("cache_rollback")).isPresent();
+            status.setRollbackOnly();
+        });
+
+        assertThat(memberCache.stats().invalidations()).isEqualTo(invalidations);
+        assertThat(memberRepository.find("cache_rollback")).isEmpty();
+    }
+
+    @Test
+    void bypassInReadOnlyTransaction() {
+        MemberCache.Stats before = memberCache.stats();
+        TransactionTemplate readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+
+        // readOnly 트랜잭션의 스냅샷이 무효화보다 오래되었을 수 있으므로 캐시를 채우지 않는다
+        readOnly.executeWithoutResult(status -> assertThat(memberRepository.find("cache_read_only")).isEmpty());
+        memberService.joinV1("cache_read_only");
+
+        readOnly.executeWithoutResult(status -> {
+            Member found = memberRepository.find("cache_read_only").get();
+            assertThat(found).isSameAs(memberRepository.find("cache_read_only").get()); // 관리되는 엔티티
+        });
+        assertThat(memberCache.stats().hits()).isEqualTo(before.hits());
+        assertThat(memberCache.stats().misses()).isEqualTo(before.misses());
+        assertThat(memberCache.stats().size()).isZero();
+    }
+
+    @Test
+    void lruAndTtl() throws InterruptedException {
+        MemberCache cache = new MemberCache(2, 50);
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, Optional<Member>> loader = userName -> {
+            loads.incrementAndGet();
+            Member member = new Member(userName);
+            member.setId((long) userName.length());
+            return Optional.of(member);
+        };
+
+        cache.find("a", loader);
+        cache.find("bb", loader);
+        cache.find("a", loader);   // hit, a 가 최근 사용
+        cache.find("ccc", loader); // bb 제거 (LRU)
+        cache.find("a", loader);   // hit
+        cache.find("bb", loader);  // miss
+        assertThat(loads.get()).isEqualTo(4);
+        assertThat(cache.stats().evictions()).isEqualTo(2);
+
+        Thread.sleep(60);
+        cache.find("bb", loader); // ttl 만료
+        assertThat(cache.stats().expirations()).isEqualTo(1);
+        assertThat(cache.stats().size()).isEqualTo(2);
+        assertThat(cache.stats().hitRatio()).isEqualTo(2.0 / 7);
+    }
+}
@@ -0,0 +1,120 @@
+package hello.springtx.propagation;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "springtx.log.write-mode=nested")
+class NestedLogWriterTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired LogRepository logRepository;
+    @Autowired LogWriter logWriter;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager txManager;
+
+    @Test
+    void nestedMode() {
+        assertThat(logWriter).isInstanceOf(NestedLogWriter.class);
+        assertThat(memberService.connectionsPerJoin()).isEqualTo(1); // 외부 트랜잭션의 커넥션만 사용
+    }
+
+    @Test
+    void nested_success() {
+        String userName = "nested_success";
+
+        memberService.joinV2(userName);
+
+        assertTrue(memberRepository.find(userName).isPresent());
+        assertTrue(logRepository.find(userName).isPresent()); // 외부 트랜잭션과 함께 COMMIT
+    }
+
+    @Test
+    void nested_logFail() {
+        String userName = "로그예외_nested_logFail";
+
+        memberService.joinV2(userName); // savepoint 까지만 롤백하고 정상 흐름 반환
+
+        assertTrue(memberRepository.find(userName).isPresent()); // 회원 로직은 COMMIT
+        assertTrue(logRepository.find(userName).isEmpty()); // LOG 만 ROLLBACK
+    }
+
+    @Test
+    void nested_logFail_outerRollback() {
+        String userName = "로그예외_nested_outerRollback";
+
+        assertThatThrownBy(() -> memberService.joinV1(userName)).isInstanceOf(RuntimeException.class);
+
+        assertTrue(memberRepository.find(userName).isEmpty()); // 예외가 외부로 전파되면 전체 ROLLBACK
+        assertTrue(logRepository.find(userName).isEmpty());
+    }
+
+    @Test
+    void rollbackToSavepoint_detachesInnerEntities() {
+        TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+        Log failed = new Log("로그예외_nested_detach");
+        Log kept = new Log("nested_detach_kept");
+
+        txTemplate.executeWithoutResult(status -> {
+            Member member = new Member("nested_detach");
+            memberRepository.save(member); // savepoint 생성 시 flush 되어 savepoint 이전으로 간다
+
+            assertThatThrownBy(() -> logRepository.saveNested(failed)).isInstanceOf(RuntimeException.class);
+            assertThat(em.contains(failed)).isFalse(); // 롤백된 엔티티는 detach
+            assertThat(em.contains(member)).isTrue();
+            assertThat(status.isRollbackOnly()).isFalse();
+
+            logRepository.saveNested(kept);
+        });
+
+        assertTrue(memberRepository.find("nested_detach").isPresent());
+        assertTrue(logRepository.find(failed.getMessage()).isEmpty());
+        assertTrue(logRepository.find(kept.getMessage()).isPresent());
+    }
+
+    @Test
+    void rollbackToSavepoint_refreshesChangedEntities() {
+        TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+        TransactionTemplate nested = new TransactionTemplate(txManager);
+        nested.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+
+        txTemplate.executeWithoutResult(status -> {
+            Member flushed = new Member("nested_refresh_flushed");
+            Member dirty = new Member("nested_refresh_dirty");
+            Member removed = new Member("nested_refresh_removed");
+            memberRepository.save(flushed);
+            memberRepository.save(dirty);
+            memberRepository.save(removed);
+
+            // savepoint 이전부터 관리되던 엔티티를 내부에서 변경한 뒤 롤백
+            assertThatThrownBy(() -> nested.executeWithoutResult(inner -> {
+                flushed.setUserName("nested_refresh_changed");
+                em.flush(); // 내부에서 flush 된 update
+                dirty.setUserName("nested_refresh_changed"); // flush 되지 않은 변경
+                em.remove(removed);
+                throw new IllegalStateException("내부 롤백");
+            })).isInstanceOf(IllegalStateException.class);
+
+            assertThat(flushed.getUserName()).isEqualTo("nested_refresh_flushed"); // DB 에서 다시 읽는다
+            assertThat(dirty.getUserName()).isEqualTo("nested_refresh_dirty");
+            assertThat(em.contains(flushed)).isTrue();
+            assertThat(em.contains(removed)).isFalse();
+            assertThat(status.isRollbackOnly()).isFalse();
+        });
+
+        // 외부 커밋이 내부 변경을 다시 쓰지 않는다
+        assertTrue(memberRepository.find("nested_refresh_flushed").isPresent());
+        assertTrue(memberRepository.find("nested_refresh_dirty").isPresent());
+        assertTrue(memberRepository.find("nested_refresh_removed").isPresent());
+        assertTrue(memberRepository.find("nested_refresh_changed").isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+package hello.springtx.propagation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "springtx.log.write-mode=write-behind",
+        "springtx.log.write-behind.methods=MemberService.joinV1,MemberService.joinV3,WriteBehindLogWriterTest"})
+class WriteBehindLogWriterTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired LogRepository logRepository;
+    @Autowired LogWriter logWriter;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager txManager;
+
+    @Test
+    void writeBehindMode() {
+        assertThat(logWriter).isInstanceOf(WriteBehindLogWriter.class);
+    }
+
+    @Test
+    void joinV1_success() {
+        memberService.joinV1("write_behind_v1");
+        memberService.joinV3("write_behind_v3");
+
+        assertTrue(memberRepository.find("write_behind_v1").isPresent());
+        assertTrue(logRepository.find("write_behind_v1").isPresent()); // 회원과 같은 트랜잭션으로 커밋
+        assertTrue(memberRepository.find("write_behind_v3").isPresent());
+        assertTrue(logRepository.find("write_behind_v3").isPresent());
+    }
+
+    @Test
+    void joinV1_logFail() {
+        String userName = "로그예외_write_behind";
+
+        assertThatThrownBy(() -> memberService.joinV1(userName)).isInstanceOf(RuntimeException.class); // 커밋 직전 저장 실패
+
+        assertTrue(memberRepository.find(userName).isEmpty()); // 전체 ROLLBACK
+        assertTrue(logRepository.find(userName).isEmpty());
+    }
+
+    @Test
+    void joinV2_notTarget() {
+        String userName = "로그예외_write_behind_v2";
+
+        memberService.joinV2(userName); // 대상이 아니면 REQUIRES_NEW 로 바로 저장, 실패해도 회원은 커밋
+
+        assertTrue(memberRepository.find(userName).isPresent());
+        assertTrue(logRepository.find(userName).isEmpty());
+    }
+
+    @Test
+    void bufferedUntilCommit() {
+        TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+        txTemplate.setName("WriteBehindLogWriterTest");
+
+        txTemplate.executeWithoutResult(status -> {
+            logWriter.write(new Log("write_behind_buffered_1"));
+            logWriter.write(new Log("write_behind_buffered_2"));
+            assertThat(count("write_behind_buffered_%")).isZero(); // 아직 insert 하지 않았다
+        });
+        assertThat(count("write_behind_buffered_%")).isEqualTo(2);
+
+        txTemplate.executeWithoutResult(status -> {
+            logWriter.write(new Log("write_behind_discarded"));
+            status.setRollbackOnly();
+        });
+        assertThat(count("write_behind_discarded")).isZero(); // 롤백되면 버린다
+    }
+
+    private int count(String pattern) {
+        return jdbcTemplate.queryForObject("select count(*) from log where message like ?", Integer.class, pattern);
+    }
+}
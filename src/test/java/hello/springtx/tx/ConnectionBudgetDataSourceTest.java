@@ -0,0 +1,221 @@
+package hello.springtx.tx;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hello.springtx.propagation.MemberRepository;
+import hello.springtx.propagation.MemberService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@SpringBootTest(properties = {
+        "springtx.tx.connection-budget.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=1000"
+})
+class ConnectionBudgetDataSourceTest {
+
+    static final int THREADS = 2;
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired DataSource dataSource;
+
+    HikariDataSource smallPool;
+    ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        // 풀 크기 2, 커넥션 대기 시간 300ms 인 별도 풀
+        smallPool = new HikariDataSource();
+        smallPool.setJdbcUrl("jdbc:h2:mem:budget;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        smallPool.setUsername("sa");
+        smallPool.setMaximumPoolSize(THREADS);
+        smallPool.setConnectionTimeout(300);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        smallPool.close();
+    }
+
+    @Test
+    void requiresNew_starvation() throws InterruptedException {
+        // 예산 없음 : 외부 트랜잭션 2개가 커넥션 2개를 모두 쥔 채로 REQUIRES_NEW 커넥션을 기다린다
+        List<Throwable> failures = runOuterWithRequiresNew(new DataSourceTransactionManager(smallPool));
+
+        assertThat(failures).isNotEmpty();
+        assertThat(failures).allMatch(e -> e instanceof CannotCreateTransactionException);
+    }
+
+    @Test
+    void requiresNew_reserved() throws InterruptedException {
+        // 예산 적용 : 외부 트랜잭션은 1개까지만 동시에 시작하고, 나머지 1개는 REQUIRES_NEW 용으로 예약
+        ConnectionBudgetDataSource budget = new ConnectionBudgetDataSource(smallPool, THREADS, 1, 5_000, 1_000);
+
+        List<Throwable> failures = runOuterWithRequiresNew(new DataSourceTransactionManager(budget));
+
+        assertThat(failures).isEmpty();
+        assertThat(budget.getOuterBudget().getInUse()).isZero();
+        assertThat(budget.getInnerBudget().getInUse()).isZero();
+    }
+
+    @Test
+    void nestedRequiresNew_failFast() {
+        DataSourceTransactionManager budgetTxManager = new DataSourceTransactionManager(
+                new ConnectionBudgetDataSource(smallPool, THREADS, 1, 5_000, 100));
+
+        TransactionStatus outer = budgetTxManager.getTransaction(new DefaultTransactionAttribute());
+        TransactionStatus inner = budgetTxManager.getTransaction(requiresNew());
+        assertThatThrownBy(() -> budgetTxManager.getTransaction(requiresNew()))
+                .isInstanceOf(CannotCreateTransactionException.class)
+                .hasStackTraceContaining("예약 커넥션이 없습니다");
+        budgetTxManager.commit(inner);
+        budgetTxManager.commit(outer);
+    }
+
+    @Test
+    void mixedReaders_starvation() throws InterruptedException {
+        // 예산 없음 : 트랜잭션 밖의 조회가 커넥션을 가져가면 외부 트랜잭션의 REQUIRES_NEW 가 풀에서 기다린다
+        List<Throwable> failures = runReadersWithJoins(smallPool);
+
+        assertThat(failures).isNotEmpty();
+    }
+
+    @Test
+    void mixedReaders_reserved() throws InterruptedException {
+        // 예산 적용 : 조회도 getConnection 에서 outer 예산을 거치므로 예약분은 항상 REQUIRES_NEW 몫으로 남는다
+        ConnectionBudgetDataSource budget = new ConnectionBudgetDataSource(smallPool, THREADS, 1, 10_000, 1_000);
+
+        List<Throwable> failures = runReadersWithJoins(budget);
+
+        assertThat(failures).isEmpty();
+        assertThat(budget.getOuterBudget().getInUse()).isZero();
+        assertThat(budget.getInnerBudget().getInUse()).isZero();
+        assertThat(budget.getInnerBudget().getPeak()).isEqualTo(1);
+    }
+
+    @Test
+    void joinV1_concurrent() throws Exception {
+        assertThat(dataSource).isInstanceOf(ConnectionBudgetDataSource.class);
+
+        // 풀 크기 2 에서 joinV1 (회원 + REQUIRES_NEW 로그) 과 트랜잭션 밖의 조회를 동시에 실행해도 교착 없이 모두 완료된다
+        ExecutorService joinExecutor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String userName = "budget_" + i;
+                futures.add(joinExecutor.submit(() -> memberService.joinV1(userName)));
+                futures.add(joinExecutor.submit(() -> memberRepository.find(userName)));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            joinExecutor.shutdownNow();
+        }
+        assertThat(memberRepository.find("budget_39")).isPresent();
+    }
+
+    private List<Throwable> runOuterWithRequiresNew(PlatformTransactionManager tm) throws InterruptedException {
+        CountDownLatch outerStarted = new CountDownLatch(THREADS);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            executor.execute(() -> {
+                try {
+                    TransactionStatus outer = tm.getTransaction(new DefaultTransactionAttribute());
+                    try {
+                        outerStarted.countDown();
+                        outerStarted.await(200, TimeUnit.MILLISECONDS); // 다른 스레드도 외부 트랜잭션을 시작할 때까지
+                        TransactionStatus inner = tm.getTransaction(requiresNew());
+                        tm.commit(inner);
+                    } finally {
+                        tm.commit(outer);
+                    }
+                } catch (Throwable e) {
+                    log.info("failure={}", e.toString());
+                    failures.add(e);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        return failures;
+    }
+
+    // 외부 트랜잭션 + REQUIRES_NEW 와, 트랜잭션 없이 커넥션을 잠시 쥐는 조회 (autocommit) 를 섞어서 실행한다
+    private List<Throwable> runReadersWithJoins(DataSource ds) throws InterruptedException {
+        PlatformTransactionManager tm = new DataSourceTransactionManager(ds);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(ds);
+        ExecutorService mixed = Executors.newFixedThreadPool(4);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            mixed.execute(() -> {
+                for (int i = 0; i < 5; i++) {
+                    try {
+                        TransactionStatus outer = tm.getTransaction(new DefaultTransactionAttribute());
+                        try {
+                            tm.commit(tm.getTransaction(requiresNew()));
+                        } finally {
+                            tm.commit(outer);
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            });
+            mixed.execute(() -> {
+                for (int i = 0; i < 5; i++) {
+                    try {
+                        // 풀의 커넥션 대기 시간(300ms) 보다 오래 쥔다
+                        jdbcTemplate.execute((ConnectionCallback<Object>) connection -> {
+                            sleep(350);
+                            return null;
+                        });
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            });
+        }
+        mixed.shutdown();
+        assertThat(mixed.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        failures.forEach(e -> log.info("failure={}", e.toString()));
+        return failures;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private DefaultTransactionAttribute requiresNew() {
+        DefaultTransactionAttribute definition = new DefaultTransactionAttribute();
+        definition.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return definition;
+    }
+}
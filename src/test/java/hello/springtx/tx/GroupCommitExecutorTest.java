@@ -0,0 +1,166 @@
+package hello.springtx.tx;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderRepository;
+import hello.springtx.order.OrderService;
+import hello.springtx.order.PayStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "springtx.tx.group-commit.enabled=true",
+        "springtx.tx.group-commit.window-ms=200",
+        "springtx.tx.group-commit.max-batch=20"})
+class GroupCommitExecutorTest {
+
+    @Autowired GroupCommitExecutor groupCommit;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired PlatformTransactionManager txManager;
+
+    @Test
+    void coalesce() {
+        long groupsBefore = groupCommit.groupCount();
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(groupCommit.submit(() -> order("정상 승인")));
+        }
+
+        for (CompletableFuture<Long> future : futures) {
+            assertThat(orderRepository.findById(future.join())).isPresent(); // 커밋 후에 완료된다
+        }
+        assertThat(groupCommit.groupCount() - groupsBefore).isBetween(2L, 4L); // max-batch 20 건씩
+    }
+
+    @Test
+    void failureIsolation() {
+        AtomicLong systemErrorId = new AtomicLong();
+        AtomicLong ownErrorId = new AtomicLong();
+
+        CompletableFuture<Long> before = groupCommit.submit(() -> order("정상 승인"));
+        // 참여한 트랜잭션의 런타임 예외 : 그룹 전체가 rollback-only 가 되어 나머지를 다시 실행한다
+        CompletableFuture<Long> systemError = groupCommit.submit(() -> {
+            Order order = new Order();
+            order.setUserName("예외");
+            try {
+                orderService.order(order);
+            } finally {
+                systemErrorId.set(order.getId());
+            }
+            return order.getId();
+        });
+        // unit 자신의 런타임 예외 : savepoint 까지만 롤백한다
+        CompletableFuture<Long> ownError = groupCommit.submit(() -> {
+            Order order = new Order();
+            order.setUserName("정상 승인");
+            orderRepository.save(order);
+            ownErrorId.set(order.getId());
+            throw new IllegalStateException("unit 예외");
+        });
+        // 체크 예외 : 변경은 커밋하고 future 만 실패한다
+        AtomicLong pendingId = new AtomicLong();
+        CompletableFuture<Long> notEnoughMoney = groupCommit.submit(() -> {
+            Order order = new Order();
+            order.setUserName("잔고 부족");
+            try {
+                orderService.order(order);
+            } finally {
+                pendingId.set(order.getId());
+            }
+            return order.getId();
+        });
+        CompletableFuture<Long> after = groupCommit.submit(() -> order("정상 승인"));
+
+        assertThat(orderRepository.findById(before.join())).isPresent();
+        assertThat(orderRepository.findById(after.join())).isPresent();
+
+        assertThatThrownBy(systemError::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(RuntimeException.class);
+        assertThat(orderRepository.findById(systemErrorId.get())).isEmpty();
+
+        assertThatThrownBy(ownError::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(orderRepository.findById(ownErrorId.get())).isEmpty();
+
+        assertThatThrownBy(notEnoughMoney::join).hasCauseInstanceOf(NotEnoughMoneyException.class);
+        assertThat(orderRepository.findById(pendingId.get()).get().getPayStatus()).isEqualTo(PayStatus.PENDING);
+    }
+
+    @Test
+    void swallowedFailure() {
+        AtomicLong swallowedId = new AtomicLong();
+        AtomicLong ownErrorId = new AtomicLong();
+
+        CompletableFuture<Long> before = groupCommit.submit(() -> order("정상 승인"));
+        // 참여한 트랜잭션의 예외를 잡고 정상 반환 : 예외가 없어도 이 unit 이 그룹을 rollback-only 로 만든다
+        CompletableFuture<Long> swallowed = groupCommit.submit(() -> {
+            Order order = new Order();
+            order.setUserName("예외");
+            try {
+                orderService.order(order);
+            } catch (RuntimeException e) {
+                swallowedId.set(order.getId());
+            }
+            return order.getId();
+        });
+        // 뒤에서 자기 예외를 던진 unit 이 rollback-only 의 원인으로 몰리지 않는다
+        CompletableFuture<Long> ownError = groupCommit.submit(() -> {
+            Order order = new Order();
+            order.setUserName("정상 승인");
+            orderRepository.save(order);
+            ownErrorId.set(order.getId());
+            throw new IllegalStateException("unit 예외");
+        });
+        CompletableFuture<Long> after = groupCommit.submit(() -> order("정상 승인"));
+
+        assertThat(orderRepository.findById(before.join())).isPresent();
+        assertThat(orderRepository.findById(after.join())).isPresent();
+
+        assertThatThrownBy(swallowed::join).hasCauseInstanceOf(UnexpectedRollbackException.class);
+        assertThat(orderRepository.findById(swallowedId.get())).isEmpty();
+
+        assertThatThrownBy(ownError::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(orderRepository.findById(ownErrorId.get())).isEmpty();
+    }
+
+    @Test
+    void submitInsideTransaction() {
+        // 호출한 트랜잭션이 쥔 잠금을 커밋 스레드의 unit 이 기다리는 교착을 막는다
+        new TransactionTemplate(txManager).executeWithoutResult(status ->
+                assertThatThrownBy(() -> groupCommit.submit(() -> order("정상 승인")))
+                        .isInstanceOf(IllegalTransactionStateException.class));
+    }
+
+    @Test
+    void submitAfterStop() throws InterruptedException {
+        GroupCommitExecutor executor = new GroupCommitExecutor(new TransactionTemplate(txManager), 10, 10, 1, 10);
+        executor.start();
+        executor.stop();
+
+        // 종료된 뒤에는 호출 스레드에서 실행한다 (future 가 완료되지 않아 멈추지 않는다)
+        CompletableFuture<Long> future = executor.submit(() -> order("정상 승인"));
+        assertThat(orderRepository.findById(future.join())).isPresent();
+    }
+
+    private Long order(String userName) throws NotEnoughMoneyException {
+        Order order = new Order();
+        order.setUserName(userName);
+        orderService.order(order);
+        return order.getId();
+    }
+}
@@ -0,0 +1,74 @@
+package hello.springtx.tx;
+
+import hello.springtx.propagation.Member;
+import hello.springtx.propagation.MemberRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "springtx.tx.rollback-only-guard.enabled=true")
+class RollbackOnlyGuardTest {
+
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired RollbackOnlyGuard guard;
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManager em;
+
+    @Test
+    void wrapped() {
+        assertThat(txManager).isInstanceOf(RollbackOnlyGuardTransactionManager.class);
+    }
+
+    @Test
+    void participationFailsFast() {
+        RollbackOnlyGuard.Stats before = guard.stats();
+
+        TransactionStatus outer = txManager.getTransaction(TransactionExecutor.required("guard.outer"));
+        TransactionStatus inner = txManager.getTransaction(TransactionExecutor.required("guard.inner"));
+        txManager.rollback(inner); // 내부 트랜잭션 롤백 -> 물리 트랜잭션 rollback-only
+        assertThat(RollbackOnlyGuard.isCurrentRollbackOnly()).isTrue();
+
+        assertThatThrownBy(() -> txManager.getTransaction(TransactionExecutor.required("guard.doomed")))
+                .isInstanceOf(RollbackOnlyTransactionException.class);
+
+        // REQUIRES_NEW 는 별도 트랜잭션이므로 진행한다
+        TransactionStatus requiresNew = txManager.getTransaction(TransactionExecutor.requiresNew("guard.new"));
+        assertThat(RollbackOnlyGuard.isCurrentRollbackOnly()).isFalse();
+        txManager.commit(requiresNew);
+
+        txManager.rollback(outer);
+        assertThat(guard.stats().blockedCalls() - before.blockedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void statementFailsFast() {
+        RollbackOnlyGuard.Stats before = guard.stats();
+        TransactionTemplate outer = new TransactionTemplate(txManager);
+        TransactionTemplate inner = new TransactionTemplate(txManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+
+        assertThatThrownBy(() -> outer.executeWithoutResult(status -> {
+            memberRepository.save(new Member("guard_statement"));
+            try {
+                inner.executeWithoutResult(innerStatus -> {
+                    throw new IllegalStateException("내부 실패");
+                });
+            } catch (IllegalStateException e) {
+                // 예외를 잡아도 물리 트랜잭션은 이미 rollback-only
+            }
+            // auto flush 로 나갈 insert 와 조회 모두 실행하지 않는다
+            em.createQuery("select m from Member m", Member.class).getResultList();
+        })).isInstanceOf(RollbackOnlyTransactionException.class);
+
+        assertThat(guard.stats().blockedStatements() - before.blockedStatements()).isEqualTo(1);
+        assertThat(memberRepository.find("guard_statement")).isEmpty();
+    }
+}
@@ -0,0 +1,117 @@
+package hello.springtx.tx;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "springtx.tx.attribute-cache.enabled=true")
+class TransactionAttributeCacheTest {
+
+    @Autowired TransactionInterceptor transactionInterceptor;
+    @Autowired LevelService levelService;
+
+    @TestConfiguration
+    static class AttributeCacheTestConfig {
+
+        @Bean
+        LevelService levelService() {
+            return new LevelService();
+        }
+    }
+
+    static class MyException extends Exception {
+    }
+
+    // TxLevelTest.LevelService + RollbackTest.RollbackService
+    @Transactional(readOnly = true)
+    static class LevelService {
+
+        private final List<String> completions = new ArrayList<>();
+
+        public List<String> completions() {
+            return completions; // 프록시(CGLIB) 의 필드가 아니라 대상 객체의 필드
+        }
+
+        @Transactional(readOnly = false)
+        public String write() {
+            return TransactionSynchronizationManager.getCurrentTransactionName()
+                    + ":" + TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+
+        public boolean read() {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+
+        @Transactional(rollbackFor = MyException.class)
+        public void rollbackFor() throws MyException {
+            recordCompletion();
+            throw new MyException();
+        }
+
+        @Transactional
+        public void checkedException() throws MyException {
+            recordCompletion();
+            throw new MyException();
+        }
+
+        private void recordCompletion() {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    completions.add(status == STATUS_COMMITTED ? "commit" : "rollback");
+                }
+            });
+        }
+    }
+
+    @Test
+    void precomputed() throws NoSuchMethodException {
+        assertThat(transactionInterceptor.getTransactionAttributeSource())
+                .isInstanceOf(PrecomputedTransactionAttributeSource.class);
+        PrecomputedTransactionAttributeSource source =
+                (PrecomputedTransactionAttributeSource) transactionInterceptor.getTransactionAttributeSource();
+        assertThat(source.size()).isPositive();
+
+        TransactionAttribute attribute = source.getTransactionAttribute(LevelService.class.getMethod("read"), LevelService.class);
+        assertThat(attribute).isInstanceOf(MemoizedTransactionAttribute.class);
+        assertThat(attribute.isReadOnly()).isTrue();
+        // 같은 (메서드, 클래스) 는 같은 객체를 반환한다
+        assertThat(source.getTransactionAttribute(LevelService.class.getMethod("read"), LevelService.class)).isSameAs(attribute);
+        // 트랜잭션이 아닌 메서드
+        assertThat(source.getTransactionAttribute(Object.class.getMethod("toString"), Object.class)).isNull();
+    }
+
+    @Test
+    void mergedLevels() {
+        assertThat(levelService.write()).isEqualTo(LevelService.class.getName() + ".write:false");
+        assertThat(levelService.read()).isTrue();
+    }
+
+    @Test
+    void rollbackRules() throws NoSuchMethodException {
+        levelService.completions().clear();
+
+        assertThatThrownBy(() -> levelService.rollbackFor()).isInstanceOf(MyException.class);
+        assertThatThrownBy(() -> levelService.checkedException()).isInstanceOf(MyException.class);
+        assertThatThrownBy(() -> levelService.rollbackFor()).isInstanceOf(MyException.class);
+
+        assertThat(levelService.completions()).containsExactly("rollback", "commit", "rollback");
+
+        MemoizedTransactionAttribute attribute = (MemoizedTransactionAttribute) transactionInterceptor.getTransactionAttributeSource()
+                .getTransactionAttribute(LevelService.class.getMethod("rollbackFor"), LevelService.class);
+        assertThat(attribute.cachedDecisions()).isEqualTo(1); // MyException 한 번만 평가
+    }
+}
@@ -0,0 +1,101 @@
+package hello.springtx.tx;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderRepository;
+import hello.springtx.order.OrderService;
+import hello.springtx.order.PayStatus;
+import hello.springtx.propagation.MemberRepository;
+import hello.springtx.propagation.MemberService;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class TransactionExecutorTest {
+
+    @Autowired TransactionExecutor txExecutor;
+    @Autowired CallService callService;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+
+    @TestConfiguration
+    static class TransactionExecutorTestConfig {
+
+        @Bean
+        CallService callService(TransactionExecutor txExecutor) {
+            return new CallService(txExecutor);
+        }
+    }
+
+    @RequiredArgsConstructor
+    static class CallService {
+
+        static final TransactionDefinition INTERNAL_TX = TransactionExecutor.required("CallService.internal");
+
+        private final TransactionExecutor txExecutor;
+
+        public String external() {
+            return internal(); // InternalCallV1Test 와 달리 내부 호출에도 트랜잭션이 적용된다
+        }
+
+        public String internal() {
+            return txExecutor.execute(INTERNAL_TX, () -> {
+                assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isTrue();
+                return TransactionSynchronizationManager.getCurrentTransactionName();
+            });
+        }
+    }
+
+    @Test
+    void selfInvocation() {
+        assertThat(callService.getClass()).isEqualTo(CallService.class); // 프록시가 아니다
+        assertThat(callService.external()).isEqualTo("CallService.internal");
+    }
+
+    @Test
+    void readOnly() {
+        Boolean readOnly = txExecutor.execute(TransactionExecutor.readOnly("readOnly"),
+                TransactionSynchronizationManager::isCurrentTransactionReadOnly);
+        assertThat(readOnly).isTrue();
+    }
+
+    @Test
+    void checkedException_commit() {
+        Order order = new Order();
+        order.setUserName("잔고 부족");
+
+        assertThatThrownBy(() -> orderService.orderV2(order))
+                .isInstanceOf(NotEnoughMoneyException.class);
+
+        assertThat(orderRepository.findById(order.getId()).get().getPayStatus()).isEqualTo(PayStatus.PENDING);
+    }
+
+    @Test
+    void runtimeException_rollback() {
+        Order order = new Order();
+        order.setUserName("예외");
+
+        assertThatThrownBy(() -> orderService.orderV2(order))
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(orderRepository.findById(order.getId())).isEmpty();
+    }
+
+    @Test
+    void joinV3() {
+        memberService.joinV3("executor_join");
+
+        assertThat(memberRepository.find("executor_join")).isPresent();
+    }
+}
@@ -0,0 +1,126 @@
+package hello.springtx.tx;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderRepository;
+import hello.springtx.order.OrderService;
+import hello.springtx.propagation.MemberService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@SpringBootTest(properties = "springtx.tx.metrics.enabled=true")
+class TransactionMetricsTest {
+
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired TransactionMetricsRegistry registry;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired OrderRepository orderRepository;
+
+    @Test
+    void decorated() {
+        assertThat(txManager).isInstanceOf(MetricsTransactionManager.class);
+    }
+
+    @Test
+    void orderCommit() throws NotEnoughMoneyException {
+        TransactionStats stats = registry.stats("hello.springtx.order.OrderService.order");
+        long commit = stats.getCommit().sum();
+
+        Order order = new Order();
+        order.setUserName("정상 승인");
+        orderService.order(order);
+
+        assertThat(stats.getCommit().sum()).isEqualTo(commit + 1);
+        assertThat(registry.snapshot()).containsKey("OrderService.order");
+        log.info("metrics\n{}", registry.dump());
+    }
+
+    @Test
+    void inner_rollback() {
+        DefaultTransactionAttribute outerDef = new DefaultTransactionAttribute();
+        outerDef.setName("metrics.outer");
+        DefaultTransactionAttribute innerDef = new DefaultTransactionAttribute();
+        innerDef.setName("metrics.inner");
+
+        TransactionStatus outer = txManager.getTransaction(outerDef);
+        TransactionStatus inner = txManager.getTransaction(innerDef);
+        txManager.rollback(inner); // rollback-only 마킹
+
+        assertThatThrownBy(() -> txManager.commit(outer))
+                .isInstanceOf(UnexpectedRollbackException.class);
+
+        TransactionStats.Snapshot innerStats = registry.snapshot().get("metrics.inner");
+        TransactionStats.Snapshot outerStats = registry.snapshot().get("metrics.outer");
+        assertThat(innerStats.rollbackOnly()).isEqualTo(1);
+        assertThat(innerStats.newTransaction()).isZero();
+        assertThat(outerStats.unexpectedRollback()).isEqualTo(1);
+        assertThat(outerStats.commit()).isZero();
+    }
+
+    @Test
+    void nested_rollback() {
+        DefaultTransactionAttribute outerDef = new DefaultTransactionAttribute();
+        outerDef.setName("metrics.nestedOuter");
+        DefaultTransactionAttribute nestedDef = new DefaultTransactionAttribute(TransactionDefinition.PROPAGATION_NESTED);
+        nestedDef.setName("metrics.nested");
+
+        TransactionStatus outer = txManager.getTransaction(outerDef);
+        TransactionStatus nested = txManager.getTransaction(nestedDef);
+        txManager.rollback(nested); // savepoint 까지만 롤백
+        txManager.commit(outer);
+
+        TransactionStats.Snapshot nestedStats = registry.snapshot().get("metrics.nested");
+        TransactionStats.Snapshot outerStats = registry.snapshot().get("metrics.nestedOuter");
+        assertThat(nestedStats.rollback()).isEqualTo(1);
+        assertThat(nestedStats.rollbackOnly()).isZero();
+        assertThat(outerStats.commit()).isEqualTo(1);
+        assertThat(outerStats.unexpectedRollback()).isZero();
+    }
+
+    @Test
+    void commitFailure() throws NotEnoughMoneyException {
+        Order first = new Order();
+        first.setUserName("정상 승인");
+        first.setIdempotencyKey("metrics_commitFailure");
+        orderService.order(first);
+
+        DefaultTransactionAttribute def = new DefaultTransactionAttribute();
+        def.setName("metrics.commitFailure");
+        TransactionStatus status = txManager.getTransaction(def);
+        Order duplicate = new Order();
+        duplicate.setUserName("정상 승인");
+        duplicate.setIdempotencyKey("metrics_commitFailure");
+        orderRepository.save(duplicate); // insert 는 커밋 시점 flush 에서 unique 인덱스 위반
+
+        assertThatThrownBy(() -> txManager.commit(status))
+                .isNotInstanceOf(UnexpectedRollbackException.class);
+
+        TransactionStats.Snapshot stats = registry.snapshot().get("metrics.commitFailure");
+        assertThat(stats.commitFailure()).isEqualTo(1);
+        assertThat(stats.begin()).isEqualTo(stats.commit() + stats.rollback());
+    }
+
+    @Test
+    void requiresNewSuspend() {
+        TransactionStats stats = registry.stats("hello.springtx.propagation.LogRepository.save");
+        long suspend = stats.getSuspend().sum();
+        long rollback = stats.getRollback().sum();
+
+        memberService.joinV2("로그예외_metrics"); // LogRepository.save (REQUIRES_NEW) 롤백, 회원은 커밋
+
+        assertThat(stats.getSuspend().sum()).isEqualTo(suspend + 1);
+        assertThat(stats.getRollback().sum()).isEqualTo(rollback + 1);
+    }
+}
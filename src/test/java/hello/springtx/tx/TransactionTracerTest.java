@@ -0,0 +1,62 @@
+package hello.springtx.tx;
+
+import hello.springtx.propagation.MemberService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+@ActiveProfiles("tracing")
+@SpringBootTest
+class TransactionTracerTest {
+
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired MemberService memberService;
+
+    @Test
+    void decorated() {
+        assertThat(txManager).isInstanceOf(TracingTransactionManager.class);
+    }
+
+    @Test
+    void commit_notPrinted(CapturedOutput output) {
+        memberService.joinV1("tracing_commit");
+
+        assertThat(output).doesNotContain("transaction trace");
+    }
+
+    @Test
+    void rollback_printed(CapturedOutput output) {
+        memberService.joinV2("로그예외_tracing_rollback"); // 내부 REQUIRES_NEW 롤백
+
+        assertThat(output).contains("transaction trace rollback=true");
+        assertThat(output).contains("SUSPEND hello.springtx.propagation.LogRepository.save");
+        assertThat(output).contains("ROLLBACK hello.springtx.propagation.LogRepository.save");
+        assertThat(output).contains("SQL insert into member");
+    }
+
+    @Test
+    void buffer_overflow() {
+        TransactionTraceBuffer buffer = new TransactionTraceBuffer(4);
+        buffer.begin("outer", false);
+        for (int i = 0; i < 10; i++) {
+            buffer.sql("select " + i);
+        }
+        assertThat(buffer.end("outer", true)).isTrue();
+
+        StringBuilder sb = new StringBuilder();
+        buffer.formatTo(sb);
+        assertThat(sb.toString())
+                .contains("8 earlier events dropped")
+                .contains("SQL select 9")
+                .contains("ROLLBACK outer")
+                .doesNotContain("select 6\n");
+    }
+}
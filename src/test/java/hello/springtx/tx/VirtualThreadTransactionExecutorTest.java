@@ -0,0 +1,62 @@
+package hello.springtx.tx;
+
+import hello.springtx.propagation.LogRepository;
+import hello.springtx.propagation.MemberRepository;
+import hello.springtx.propagation.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "springtx.virtual-threads.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+class VirtualThreadTransactionExecutorTest {
+
+    @Autowired VirtualThreadTransactionExecutor executor;
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired LogRepository logRepository;
+
+    @Test
+    void joinOnVirtualThreads() {
+        int connections = memberService.connectionsPerJoin();
+        assertThat(connections).isEqualTo(2); // 회원 트랜잭션 + LogRepository.save (REQUIRES_NEW)
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String userName = "vt_" + i;
+            futures.add(executor.submit(connections, () -> memberService.joinV1(userName)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(memberRepository.find("vt_99")).isPresent();
+        assertThat(logRepository.find("vt_99")).isPresent();
+        // 커넥션 풀 크기를 넘어서 트랜잭션을 시작하지 않았다
+        assertThat(executor.getBudget().getPeak()).isLessThanOrEqualTo(4);
+        assertThat(executor.getBudget().getInUse()).isZero();
+    }
+
+    @Test
+    void budgetExceeded() {
+        ConnectionBudget budget = new ConnectionBudget(2);
+
+        assertThatThrownBy(() -> budget.acquire(3, 10, TimeUnit.MILLISECONDS))
+                .isInstanceOf(CannotCreateTransactionException.class);
+
+        budget.acquire(2, 10, TimeUnit.MILLISECONDS);
+        assertThatThrownBy(() -> budget.acquire(1, 10, TimeUnit.MILLISECONDS))
+                .isInstanceOf(CannotCreateTransactionException.class);
+        budget.release(2);
+        assertThat(budget.getInUse()).isZero();
+    }
+}
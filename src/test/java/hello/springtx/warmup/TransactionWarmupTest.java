@@ -0,0 +1,51 @@
+package hello.springtx.warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hello.springtx.order.OrderRepository;
+import hello.springtx.outbox.OutboxEventRepository;
+import hello.springtx.propagation.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "springtx.warmup.enabled=true",
+        "springtx.warmup.iterations=2",
+        "spring.datasource.hikari.minimum-idle=3",
+        "spring.datasource.hikari.maximum-pool-size=5"
+})
+class TransactionWarmupTest {
+
+    @Autowired TransactionWarmup warmup;
+    @Autowired DataSource dataSource;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OutboxEventRepository outboxEventRepository;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    void warmUpOnReady() throws SQLException {
+        // ApplicationReadyEvent 에서 이미 실행됐다
+        assertThat(warmup.isCompleted()).isTrue();
+
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        assertThat(pool.getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void rollbackOnly() {
+        long orders = orderRepository.count();
+        long events = outboxEventRepository.count();
+
+        warmup.warmUp();
+
+        // 합성 트랜잭션은 모두 롤백된다
+        assertThat(orderRepository.count()).isEqualTo(orders);
+        assertThat(outboxEventRepository.count()).isEqualTo(events);
+        assertThat(memberRepository.find(TransactionWarmup.WARMUP_NAME)).isEmpty();
+    }
+}